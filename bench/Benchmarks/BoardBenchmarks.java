@@ -0,0 +1,136 @@
+package Benchmarks;
+
+import Core.MoveGenerator;
+import Core.MoveList;
+import Core.Perft;
+import Core.Position;
+import Management.Board;
+import Pieces.Piece;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks for the Pieces, move generation and Board painting hot paths
+ * over the {@link Corpus} positions. Run with {@code ant bench}; pass a
+ * millisecond budget per measurement as the first argument to change the
+ * default.
+ * Benchmarks run with {@link Harness#runAllocationFree} fail the run if they
+ * allocate.
+ */
+public final class BoardBenchmarks {
+    private static final int PERFT_DEPTH = 2;
+    private static final int BOARD_PIXELS = 400;
+    private static final String[] PIECE_TYPES = {"Pawn", "Knight", "Bishop", "Rook", "Queen", "King"};
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        Harness harness = new Harness(millis, millis);
+
+        Harness.printHeader();
+        runPhase(harness, "opening", Corpus.OPENING);
+        runPhase(harness, "middlegame", Corpus.MIDDLEGAME);
+        runPhase(harness, "endgame", Corpus.ENDGAME);
+        runPhase(harness, "check", Corpus.CHECKS);
+
+        if (harness.allocationFailures() > 0) {
+            System.out.println(harness.allocationFailures() + " allocation-free benchmark(s) allocated");
+            System.exit(1);
+        }
+    }
+
+    private static void runPhase(Harness harness, String phase, String[] fens) {
+        List<Board> boards = new ArrayList<>();
+        for (String fen : fens) {
+            boards.add(new Board(null, fen));
+        }
+
+        for (int type = 0; type < PIECE_TYPES.length; type++) {
+            List<Piece> pieces = new ArrayList<>();
+            List<Board> owners = new ArrayList<>();
+            for (Board board : boards) {
+                for (Piece piece : piecesOf(board)) {
+                    if (piece.getType() == type) {
+                        pieces.add(piece);
+                        owners.add(board);
+                    }
+                }
+            }
+
+            harness.run(phase + " getLegalMoves " + PIECE_TYPES[type], () -> {
+                long n = 0;
+                for (int i = 0; i < pieces.size(); i++) {
+                    n += pieces.get(i).getLegalMoves(owners.get(i)).size();
+                }
+                return n;
+            });
+        }
+
+        MoveList list = new MoveList();
+        harness.runAllocationFree(phase + " generateLegal (move list)", () -> {
+            long n = 0;
+            for (Board board : boards) {
+                n += MoveGenerator.generateLegal(board.getPosition(), list);
+            }
+            return n;
+        });
+
+        Perft[] perfts = new Perft[boards.size()];
+        for (int i = 0; i < perfts.length; i++) {
+            perfts[i] = new Perft(new Position(boards.get(i).getPosition()), PERFT_DEPTH);
+        }
+        harness.runAllocationFree(phase + " perft " + PERFT_DEPTH, () -> {
+            long n = 0;
+            for (Perft perft : perfts) {
+                n += perft.count(PERFT_DEPTH);
+            }
+            return n;
+        });
+
+        // The per-turn table of legal targets by from-square the board
+        // keeps for highlighting and checking drops
+        long[] targets = new long[64];
+        harness.runAllocationFree(phase + " legal move table", () -> {
+            long n = 0;
+            for (Board board : boards) {
+                Position position = board.getPosition();
+                n += MoveGenerator.generateLegal(position, position.getSideToMove(), targets);
+            }
+            return n;
+        });
+
+        BufferedImage canvas = new BufferedImage(BOARD_PIXELS, BOARD_PIXELS, BufferedImage.TYPE_INT_RGB);
+        Graphics frame = canvas.getGraphics();
+        // About what a drag repaints: a piece's old and new bounds
+        Graphics drag = canvas.getGraphics();
+        drag.setClip(BOARD_PIXELS / 4, BOARD_PIXELS / 2, BOARD_PIXELS / 6, BOARD_PIXELS / 4);
+        for (Board board : boards) {
+            board.setSize(BOARD_PIXELS, BOARD_PIXELS);
+            board.doLayout();
+        }
+        // Painting is slow enough to run interpreted for a while, so index
+        // the boards rather than allocate an iterator. Boards are painted
+        // through paint(), as Swing does, so their children count too.
+        Board[] painted = boards.toArray(new Board[0]);
+        harness.runAllocationFree(phase + " paint board", () -> {
+            for (Board board : painted) {
+                board.paint(frame);
+            }
+            return painted.length;
+        });
+        harness.runAllocationFree(phase + " paint drag", () -> {
+            for (Board board : painted) {
+                board.paint(drag);
+            }
+            return painted.length;
+        });
+    }
+
+    private static List<Piece> piecesOf(Board board) {
+        List<Piece> pieces = new ArrayList<>(board.whitePieces);
+        pieces.addAll(board.blackPieces);
+        return pieces;
+    }
+}
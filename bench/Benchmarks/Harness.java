@@ -0,0 +1,112 @@
+package Benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal timing harness: warms an operation up, then runs it for a fixed
+ * wall-clock budget and reports latency and heap allocation per operation.
+ * Allocation is read from the HotSpot per-thread allocation counter.
+ */
+public final class Harness {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded in here so the JIT cannot discard the work
+    private static volatile long sink;
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private int allocationFailures;
+
+    public Harness(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+    }
+
+    /**
+     * Measures one operation and prints a result line.
+     *
+     * @param name      label for the result
+     * @param operation work to measure; its result is consumed
+     * @return the measured result
+     */
+    public Result run(String name, LongSupplier operation) {
+        loop(operation, warmupNanos);
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long ops = loop(operation, measureNanos);
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        Result result = new Result(name, ops, elapsed / (double) ops, bytes / (double) ops);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Measures an operation that must not allocate in steady state. Less than
+     * one byte per operation is tolerated, since the allocation counter itself
+     * is read on the measuring thread.
+     *
+     * @return the measured result
+     * @see #allocationFailures()
+     */
+    public Result runAllocationFree(String name, LongSupplier operation) {
+        Result result = run(name, operation);
+        if (result.bytesPerOp >= 1.0) {
+            allocationFailures++;
+            System.out.println("  ^ expected no allocation");
+        }
+        return result;
+    }
+
+    /**
+     * @return number of {@link #runAllocationFree} measurements that allocated
+     */
+    public int allocationFailures() {
+        return allocationFailures;
+    }
+
+    public static void printHeader() {
+        System.out.printf("%-44s %12s %14s %12s%n", "Benchmark", "ops", "ns/op", "B/op");
+    }
+
+    private static long loop(LongSupplier operation, long budget) {
+        long ops = 0;
+        long acc = 0;
+        long deadline = System.nanoTime() + budget;
+
+        // Check the clock every 64 operations to keep timing overhead low
+        do {
+            for (int i = 0; i < 64; i++) {
+                acc += operation.getAsLong();
+            }
+            ops += 64;
+        } while (System.nanoTime() < deadline);
+
+        sink += acc;
+        return ops;
+    }
+
+    public static final class Result {
+        public final String name;
+        public final long operations;
+        public final double nanosPerOp;
+        public final double bytesPerOp;
+
+        Result(String name, long operations, double nanosPerOp, double bytesPerOp) {
+            this.name = name;
+            this.operations = operations;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-44s %12d %14.1f %12.1f", name, operations, nanosPerOp, bytesPerOp);
+        }
+    }
+}
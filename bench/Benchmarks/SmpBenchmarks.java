@@ -0,0 +1,84 @@
+package Benchmarks;
+
+import Core.Position;
+import Engine.ParallelSearch;
+import Engine.TranspositionTable;
+
+import java.util.Arrays;
+
+/**
+ * Time-to-depth of {@link ParallelSearch} for 1, 2, 4, ... threads over the
+ * opening and middlegame {@link Corpus} positions, with the speedup over a
+ * single thread. Every run starts from an empty table, and each row is the
+ * median of several runs taken after every thread count has been warmed up
+ * at the measured depth. Run with {@code ant bench-smp}; the arguments are
+ * the search depth, the largest thread count to try and the number of runs
+ * per row.
+ */
+public final class SmpBenchmarks {
+    private static final int TABLE_MEGABYTES = 64;
+    // Long enough that only the depth limit ends a search
+    private static final long NO_TIME_LIMIT = 3_600_000L;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int processors = Runtime.getRuntime().availableProcessors();
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : processors;
+        int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        String[] fens = new String[Corpus.OPENING.length + Corpus.MIDDLEGAME.length];
+        System.arraycopy(Corpus.OPENING, 0, fens, 0, Corpus.OPENING.length);
+        System.arraycopy(Corpus.MIDDLEGAME, 0, fens, Corpus.OPENING.length, Corpus.MIDDLEGAME.length);
+
+        // Warm up every thread count at the measured depth, so no row is
+        // measured while the search code is still being compiled
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(fens, depth, threads);
+        }
+
+        System.out.printf("%d available processors, depth %d, median of %d runs%n", processors, depth, repeats);
+        System.out.printf("%-8s %14s %16s %14s %10s%n", "threads", "ms to depth", "nodes", "nps", "speedup");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long[] result = median(fens, depth, threads, repeats);
+            double millis = result[0] / 1e6;
+            if (threads == 1) {
+                baseline = millis;
+            }
+            System.out.printf("%-8d %14.1f %16d %14d %10.2f%n", threads, millis, result[1],
+                    (long) (result[1] / (result[0] / 1e9)), baseline / millis);
+        }
+    }
+
+    /*
+     * Repeats a run and returns the one with the median elapsed time.
+     */
+    private static long[] median(String[] fens, int depth, int threads, int repeats) {
+        long[][] results = new long[repeats][];
+        for (int i = 0; i < repeats; i++) {
+            results[i] = run(fens, depth, threads);
+        }
+        Arrays.sort(results, (a, b) -> Long.compare(a[0], b[0]));
+        return results[repeats / 2];
+    }
+
+    /*
+     * Searches every position to the given depth and returns the total
+     * elapsed nanoseconds and nodes.
+     */
+    private static long[] run(String[] fens, int depth, int threads) {
+        long nanos = 0;
+        long nodes = 0;
+
+        for (String fen : fens) {
+            ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(TABLE_MEGABYTES));
+            long start = System.nanoTime();
+            search.think(Position.fromFen(fen), NO_TIME_LIMIT, depth);
+            nanos += System.nanoTime() - start;
+            nodes += search.getNodes();
+            search.shutdown();
+        }
+
+        return new long[]{nanos, nodes};
+    }
+}
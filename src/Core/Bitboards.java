@@ -0,0 +1,139 @@
+package Core;
+
+/**
+ * Helpers for 64-bit square sets. Bit {@code n} stands for square {@code n}
+ * of a {@link Position}, so shifting right by 8 moves every square one rank
+ * towards black's side (up the board as drawn) and shifting left by 1 moves
+ * it one file to the right.
+ */
+public final class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_B = FILE_A << 1;
+    public static final long FILE_G = FILE_A << 6;
+    public static final long FILE_H = FILE_A << 7;
+
+    // Rows as drawn: ROW_0 is black's back rank, ROW_7 is white's
+    public static final long ROW_0 = 0xFFL;
+    public static final long ROW_2 = ROW_0 << 16;
+    public static final long ROW_5 = ROW_0 << 40;
+    public static final long ROW_7 = ROW_0 << 56;
+
+    // Leaper and pawn attacks from each square, filled once at class load
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Squares strictly between two aligned squares, and the whole line
+    // through them; both empty for squares that share no line
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            long b = 1L << sq;
+            KNIGHT_ATTACKS[sq] = knightAttackSet(b);
+            KING_ATTACKS[sq] = kingAttackSet(b);
+            PAWN_ATTACKS[Position.WHITE][sq] = pawnAttackSet(b, Position.WHITE);
+            PAWN_ATTACKS[Position.BLACK][sq] = pawnAttackSet(b, Position.BLACK);
+        }
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long ends = (1L << a) | (1L << b);
+                if (a != b && contains(Magics.rookAttacks(a, 0), b)) {
+                    BETWEEN[a][b] = Magics.rookAttacks(a, 1L << b) & Magics.rookAttacks(b, 1L << a);
+                    LINE[a][b] = (Magics.rookAttacks(a, 0) & Magics.rookAttacks(b, 0)) | ends;
+                } else if (a != b && contains(Magics.bishopAttacks(a, 0), b)) {
+                    BETWEEN[a][b] = Magics.bishopAttacks(a, 1L << b) & Magics.bishopAttacks(b, 1L << a);
+                    LINE[a][b] = (Magics.bishopAttacks(a, 0) & Magics.bishopAttacks(b, 0)) | ends;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static long bit(int sq) {
+        return 1L << sq;
+    }
+
+    public static boolean contains(long set, int sq) {
+        return (set & (1L << sq)) != 0;
+    }
+
+    /**
+     * @return squares strictly between a and b if they share a rank, file or
+     * diagonal, otherwise the empty set
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square of the rank, file or diagonal through a and b, or
+     * the empty set if they share none
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    public static long knightAttacks(int sq) {
+        return KNIGHT_ATTACKS[sq];
+    }
+
+    public static long kingAttacks(int sq) {
+        return KING_ATTACKS[sq];
+    }
+
+    /**
+     * @param sq    square of the pawn
+     * @param color color of the pawn
+     * @return squares a pawn of color on sq attacks diagonally
+     */
+    public static long pawnAttacks(int sq, int color) {
+        return PAWN_ATTACKS[color][sq];
+    }
+
+    /**
+     * @return squares attacked by any of the given knights
+     */
+    public static long knightAttackSet(long knights) {
+        long east1 = knights & ~FILE_H;
+        long west1 = knights & ~FILE_A;
+        long east2 = knights & ~(FILE_G | FILE_H);
+        long west2 = knights & ~(FILE_A | FILE_B);
+        return (east1 << 17) | (east1 >>> 15)
+                | (west1 << 15) | (west1 >>> 17)
+                | (east2 << 10) | (east2 >>> 6)
+                | (west2 << 6) | (west2 >>> 10);
+    }
+
+    /**
+     * @return squares attacked by any of the given kings
+     */
+    public static long kingAttackSet(long kings) {
+        long row = kings | ((kings & ~FILE_H) << 1) | ((kings & ~FILE_A) >>> 1);
+        return (row | (row << 8) | (row >>> 8)) & ~kings;
+    }
+
+    /**
+     * @param pawns pawns of one color
+     * @param color color of the pawns
+     * @return squares the pawns attack diagonally
+     */
+    public static long pawnAttackSet(long pawns, int color) {
+        if (color == Position.WHITE) {
+            return ((pawns & ~FILE_A) >>> 9) | ((pawns & ~FILE_H) >>> 7);
+        }
+        return ((pawns & ~FILE_A) << 7) | ((pawns & ~FILE_H) << 9);
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        return Magics.rookAttacks(sq, occupied);
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        return Magics.bishopAttacks(sq, occupied);
+    }
+}
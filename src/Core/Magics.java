@@ -0,0 +1,156 @@
+package Core;
+
+import java.util.Arrays;
+
+/**
+ * Magic bitboard attack tables for sliding pieces. For every square the
+ * blockers that matter to a slider are hashed by a multiply and shift into a
+ * slot of a shared table, so an attack set is a single lookup regardless of
+ * how far the rays reach.
+ * <p>
+ * The tables are filled once at class-load time and shared by every game in
+ * the JVM. The multipliers below were found by a seeded random search for
+ * this class's square numbering; loading fails fast if one of them ever
+ * stops producing a collision-free table.
+ */
+public final class Magics {
+    private static final int[][] ROOK_DIRECTIONS = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0442000A00049020L, 0x2100040080020080L, 0x0800120400900148L, 0x0010040A00128541L,
+            0x2800804000800030L, 0x1010002000400041L, 0x4000200011004100L, 0x0610008410800800L,
+            0x0400802402800800L, 0xC100020080800400L, 0x0002000802000401L, 0x0182085882000401L,
+            0x0220204000808000L, 0x2860100040024022L, 0x0001002004110040L, 0x99101042000A0020L,
+            0x0004080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE = new long[0x19000];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = {
+            0xA010041108003100L, 0x006082020A002900L, 0x6810010619200000L, 0x08281A0520000408L,
+            0x0001104001000400L, 0x0018901008048400L, 0x00040A0210245280L, 0x000200210808A402L,
+            0x9140048410821200L, 0x0800091010820041L, 0x20504804832202C0L, 0x0100091401081000L,
+            0x8021011140000012L, 0x0810020804450400L, 0x208B0542109008A2L, 0x0080084A08040204L,
+            0x0040E2A80811244CL, 0x2505022008008108L, 0x0430220100420040L, 0x010A040420220040L,
+            0x1105000290400000L, 0x0093001200822120L, 0x4000A62048043004L, 0x280120048A015004L,
+            0x006090002A020814L, 0x44042000240800D0L, 0x01102800040A4400L, 0x1004080080220040L,
+            0x0001001011004024L, 0x0010044000805040L, 0x0914041200820100L, 0x0004821012821480L,
+            0x0024040500C05021L, 0x0088611002080200L, 0x0116080A00040020L, 0x4000020080080080L,
+            0x2450450140840040L, 0x0000880201484100L, 0x0222020404020092L, 0x8081110600002E00L,
+            0x2842101105000801L, 0x1100809008001025L, 0x00020202221C0400L, 0x0422014022009020L,
+            0x0210046102100C00L, 0xC004008082029102L, 0x00AA461801101200L, 0x0404080080201108L,
+            0x020542108C205002L, 0x0410544804100100L, 0x0040910841100000L, 0x0400200042021100L,
+            0x00004204850400C0L, 0x0200100410A42102L, 0x1040020801210102L, 0x0805040410420000L,
+            0x2884804130100200L, 0x800C262201242000L, 0x1058000194108800L, 0x0014221054420204L,
+            0x0104000012A02200L, 0x0200881003300100L, 0x0140400202840100L, 0x0402020801010201L
+    };
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE = new long[0x1480];
+
+    static {
+        init(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE);
+        init(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE);
+    }
+
+    private Magics() {
+    }
+
+    public static long rookAttacks(int sq, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq]);
+        return ROOK_TABLE[ROOK_OFFSETS[sq] + index];
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[sq] + index];
+    }
+
+    private static void init(int[][] directions, long[] masks, long[] magics, int[] shifts,
+                             int[] offsets, long[] table) {
+        boolean[] filled = new boolean[4096];
+        int offset = 0;
+
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = relevantMask(sq, directions);
+            int bits = Long.bitCount(mask);
+            int size = 1 << bits;
+
+            masks[sq] = mask;
+            shifts[sq] = 64 - bits;
+            offsets[sq] = offset;
+            Arrays.fill(filled, 0, size, false);
+
+            // Enumerate every blocker subset of the mask (Carry-Rippler)
+            long subset = 0;
+            for (int i = 0; i < size; i++) {
+                int index = (int) ((subset * magics[sq]) >>> shifts[sq]);
+                long attacks = slowAttacks(sq, subset, directions);
+
+                if (filled[index] && table[offset + index] != attacks) {
+                    throw new IllegalStateException("Bad magic for square " + sq);
+                }
+                filled[index] = true;
+                table[offset + index] = attacks;
+                subset = (subset - mask) & mask;
+            }
+
+            offset += size;
+        }
+    }
+
+    /*
+     * Squares whose occupancy can change the attack set: the rays from sq,
+     * without the last square before the edge since nothing lies behind it.
+     */
+    private static long relevantMask(int sq, int[][] directions) {
+        long mask = 0;
+
+        for (int[] d : directions) {
+            int x = (sq & 7) + d[0];
+            int y = (sq >> 3) + d[1];
+            while (x + d[0] >= 0 && x + d[0] < 8 && y + d[1] >= 0 && y + d[1] < 8) {
+                mask |= 1L << (y * 8 + x);
+                x += d[0];
+                y += d[1];
+            }
+        }
+
+        return mask;
+    }
+
+    private static long slowAttacks(int sq, long occupied, int[][] directions) {
+        long attacks = 0;
+
+        for (int[] d : directions) {
+            int x = (sq & 7) + d[0];
+            int y = (sq >> 3) + d[1];
+            while (x >= 0 && x < 8 && y >= 0 && y < 8) {
+                long b = 1L << (y * 8 + x);
+                attacks |= b;
+                if ((occupied & b) != 0) {
+                    break;
+                }
+                x += d[0];
+                y += d[1];
+            }
+        }
+
+        return attacks;
+    }
+}
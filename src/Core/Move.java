@@ -0,0 +1,93 @@
+package Core;
+
+/**
+ * Moves packed into a single {@code int}, so move lists are plain int arrays
+ * and passing a move around never allocates. From the lowest bit up:
+ * <ul>
+ * <li>origin square (6 bits)</li>
+ * <li>target square (6)</li>
+ * <li>moving piece code (4)</li>
+ * <li>captured piece code (4, 15 for none)</li>
+ * <li>promotion piece type (3, 0 for none since pawns never promote to pawns)</li>
+ * <li>en passant and castling flags (1 each)</li>
+ * </ul>
+ * Squares and piece codes follow {@link Position}.
+ */
+public final class Move {
+    // Never a real move: its origin and target coincide
+    public static final int NONE = 0;
+
+    public static final int EN_PASSANT = 1 << 23;
+    public static final int CASTLING = 1 << 24;
+
+    private static final int NO_CAPTURE = 15;
+
+    private Move() {
+    }
+
+    /**
+     * @param from      origin square
+     * @param to        target square
+     * @param piece     code of the moving piece
+     * @param captured  code of the captured piece, or {@link Position#EMPTY}
+     * @param promotion piece type a pawn becomes, or 0 for none
+     * @param flags     {@link #EN_PASSANT}, {@link #CASTLING} or 0
+     * @return the packed move
+     */
+    public static int of(int from, int to, int piece, int captured, int promotion, int flags) {
+        int capture = captured == Position.EMPTY ? NO_CAPTURE : captured;
+        return from | to << 6 | piece << 12 | capture << 16 | promotion << 20 | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int piece(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    /**
+     * @return code of the captured piece, or {@link Position#EMPTY}
+     */
+    public static int captured(int move) {
+        int capture = (move >>> 16) & 15;
+        return capture == NO_CAPTURE ? Position.EMPTY : capture;
+    }
+
+    /**
+     * @return piece type a pawn becomes, or 0 for none
+     */
+    public static int promotion(int move) {
+        return (move >>> 20) & 7;
+    }
+
+    public static boolean isCapture(int move) {
+        return ((move >>> 16) & 15) != NO_CAPTURE;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        return (move & CASTLING) != 0;
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. {@code e2e4} or
+     * {@code a7a8q}
+     */
+    public static String toString(int move) {
+        String name = Position.squareName(from(move)) + Position.squareName(to(move));
+        return isPromotion(move) ? name + "pnbrqk".charAt(promotion(move)) : name;
+    }
+}
@@ -0,0 +1,481 @@
+package Core;
+
+import static Core.Position.BISHOP;
+import static Core.Position.KING;
+import static Core.Position.KNIGHT;
+import static Core.Position.PAWN;
+import static Core.Position.QUEEN;
+import static Core.Position.ROOK;
+import static Core.Position.WHITE;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard move generation. {@link #generate} and the per-piece helpers
+ * produce pseudo-legal targets: moves that follow each piece's movement rules
+ * but may leave the mover's own king attacked. {@link #generateLegal} produces
+ * only fully legal moves without playing any of them.
+ */
+public final class MoveGenerator {
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generates the targets of every piece of one side in a single pass.
+     *
+     * @param position position to generate from
+     * @param color    side whose pieces move
+     * @param targets  array of 64 filled with the target set of the piece on
+     *                 each square, zero for squares without a piece of color
+     * @return total number of from-to pairs generated
+     */
+    public static int generate(Position position, int color, long[] targets) {
+        Arrays.fill(targets, 0L);
+        int count = 0;
+
+        for (int type = PAWN; type <= KING; type++) {
+            long pieces = position.getPieces(color, type);
+            while (pieces != 0) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+
+                long t = targets(position, sq, color, type);
+                targets[sq] = t;
+                count += Long.bitCount(t);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Generates the legal targets of every piece of one side in a single pass.
+     * Checkers and pinned pieces are found once up front: in double check only
+     * the king moves, a single check restricts the other pieces to capturing
+     * the checker or blocking its ray, and pinned pieces stay on the line
+     * through their king.
+     *
+     * @param position position to generate from
+     * @param color    side whose pieces move
+     * @param targets  array of 64 filled with the legal targets of the piece on
+     *                 each square, zero for squares without a piece of color
+     * @return total number of from-to pairs generated
+     */
+    public static int generateLegal(Position position, int color, long[] targets) {
+        Arrays.fill(targets, 0L);
+
+        int king = position.getKingSquare(color);
+        long checkers = attackersTo(position, king, color ^ 1, position.getOccupancy());
+        long kingTargets = legalKingTargets(position, king, color, checkers);
+        targets[king] = kingTargets;
+        int count = Long.bitCount(kingTargets);
+
+        if (Long.bitCount(checkers) > 1) {
+            return count;
+        }
+
+        long checkMask = checkMask(king, checkers);
+        long pinned = pinnedPieces(position, color, king);
+
+        for (int type = PAWN; type < KING; type++) {
+            long pieces = position.getPieces(color, type);
+            while (pieces != 0) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+
+                long t = legalTargets(position, sq, color, type, king, checkMask, pinned);
+                targets[sq] = t;
+                count += Long.bitCount(t);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Generates the legal moves of the side to move as packed {@link Move}s,
+     * with one move per promotion piece. Nothing is allocated, so a list kept
+     * per ply makes search and perft garbage-free.
+     *
+     * @param position position to generate from
+     * @param moves    cleared and filled with the legal moves
+     * @return number of moves generated
+     */
+    public static int generateLegal(Position position, MoveList moves) {
+        return generateLegal(position, moves, -1L, -1L);
+    }
+
+    /**
+     * Generates only the legal captures and promotions of the side to move,
+     * as quiescence search needs.
+     *
+     * @param position position to generate from
+     * @param moves    cleared and filled with the moves
+     * @return number of moves generated
+     * @see #generateLegal(Position, MoveList)
+     */
+    public static int generateCaptures(Position position, MoveList moves) {
+        long enemies = position.getOccupancy(position.getSideToMove() ^ 1);
+        long pawnTargets = enemies | Bitboards.ROW_0 | Bitboards.ROW_7;
+        if (position.getEnPassant() != Position.NO_SQUARE) {
+            pawnTargets |= 1L << position.getEnPassant();
+        }
+        return generateLegal(position, moves, enemies, pawnTargets);
+    }
+
+    /*
+     * Legal moves whose target lies in the given set, with a separate set for
+     * pawns since en passant and promotion are not captures of the piece on
+     * the target square.
+     */
+    private static int generateLegal(Position position, MoveList moves, long mask, long pawnMask) {
+        moves.clear();
+
+        int color = position.getSideToMove();
+        int king = position.getKingSquare(color);
+        long checkers = attackersTo(position, king, color ^ 1, position.getOccupancy());
+        addMoves(position, moves, king, legalKingTargets(position, king, color, checkers) & mask);
+
+        if (Long.bitCount(checkers) > 1) {
+            return moves.size();
+        }
+
+        long checkMask = checkMask(king, checkers);
+        long pinned = pinnedPieces(position, color, king);
+
+        for (int type = PAWN; type < KING; type++) {
+            long pieces = position.getPieces(color, type);
+            while (pieces != 0) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long targets = legalTargets(position, sq, color, type, king, checkMask, pinned);
+                addMoves(position, moves, sq, targets & (type == PAWN ? pawnMask : mask));
+            }
+        }
+
+        return moves.size();
+    }
+
+    /**
+     * Legal targets of a single piece, for callers that only need one.
+     *
+     * @param position position to generate from
+     * @param sq       square of the moving piece
+     * @return legal targets of the piece on sq, or 0 if it is empty
+     */
+    public static long legalTargets(Position position, int sq) {
+        int code = position.pieceAt(sq);
+        if (code == Position.EMPTY) {
+            return 0L;
+        }
+
+        int color = Position.colorOf(code);
+        int type = Position.typeOf(code);
+        int king = position.getKingSquare(color);
+        long checkers = attackersTo(position, king, color ^ 1, position.getOccupancy());
+
+        if (type == KING) {
+            return legalKingTargets(position, king, color, checkers);
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return 0L;
+        }
+        return legalTargets(position, sq, color, type, king, checkMask(king, checkers),
+                pinnedPieces(position, color, king));
+    }
+
+    private static void addMoves(Position position, MoveList moves, int from, long targets) {
+        int piece = position.pieceAt(from);
+        int type = Position.typeOf(piece);
+
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+
+            if (type == PAWN && (to < 8 || to >= 56)) {
+                for (int promotion = QUEEN; promotion >= KNIGHT; promotion--) {
+                    moves.add(pack(position, from, to, piece, promotion));
+                }
+            } else {
+                moves.add(pack(position, from, to, piece, 0));
+            }
+        }
+    }
+
+    /**
+     * Packs the move between two squares of a position, as generation would,
+     * without generating any other move. Pawns reaching the last rank
+     * promote to queens.
+     *
+     * @param position position the move is played in
+     * @param from     origin square, holding a piece of the side to move
+     * @param to       target square, among its {@link #legalTargets}
+     * @return the packed {@link Move}
+     */
+    public static int move(Position position, int from, int to) {
+        int piece = position.pieceAt(from);
+        boolean promotes = Position.typeOf(piece) == PAWN && (to < 8 || to >= 56);
+        return pack(position, from, to, piece, promotes ? QUEEN : 0);
+    }
+
+    private static int pack(Position position, int from, int to, int piece, int promotion) {
+        int type = Position.typeOf(piece);
+        int captured = position.pieceAt(to);
+        int flags = 0;
+        if (type == PAWN && to == position.getEnPassant()) {
+            captured = Position.code(Position.colorOf(piece) ^ 1, PAWN);
+            flags = Move.EN_PASSANT;
+        } else if (type == KING && Math.abs(to - from) == 2) {
+            flags = Move.CASTLING;
+        }
+        return Move.of(from, to, piece, captured, promotion, flags);
+    }
+
+    /*
+     * The king may not step along a checking ray, so it is lifted off the
+     * board while its targets are tested. Castling needs the king unchecked.
+     */
+    private static long legalKingTargets(Position position, int king, int color, long checkers) {
+        int enemy = color ^ 1;
+        long withoutKing = position.getOccupancy() & ~(1L << king);
+        long moves = Bitboards.kingAttacks(king) & ~position.getOccupancy(color);
+        long targets = 0L;
+
+        while (moves != 0) {
+            int to = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            if (attackersTo(position, to, enemy, withoutKing) == 0) {
+                targets |= 1L << to;
+            }
+        }
+        if (checkers == 0) {
+            targets |= castlingTargets(position, king, color);
+        }
+
+        return targets;
+    }
+
+    /*
+     * Squares that resolve a single check: the checker itself and, for a
+     * slider, the squares between it and the king. Everything when unchecked.
+     */
+    private static long checkMask(int king, long checkers) {
+        if (checkers == 0) {
+            return -1L;
+        }
+        return checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers));
+    }
+
+    private static long legalTargets(Position position, int sq, int color, int type, int king,
+                                     long checkMask, long pinned) {
+        long t = targets(position, sq, color, type) & checkMask;
+        if ((pinned & (1L << sq)) != 0) {
+            t &= Bitboards.line(king, sq);
+        }
+
+        // En passant removes two pawns from the board at once, so it is
+        // checked against the resulting occupancy directly
+        int ep = position.getEnPassant();
+        if (type == PAWN && ep != Position.NO_SQUARE && color == position.getSideToMove()) {
+            t &= ~(1L << ep);
+            if (Bitboards.contains(Bitboards.pawnAttacks(sq, color), ep)
+                    && isLegalEnPassant(position, color, king, sq, ep)) {
+                t |= 1L << ep;
+            }
+        }
+
+        return t;
+    }
+
+    /**
+     * @param position position to generate from
+     * @param sq       square of the moving piece
+     * @return pseudo-legal targets of the piece on sq, or 0 if it is empty
+     */
+    public static long targets(Position position, int sq) {
+        int code = position.pieceAt(sq);
+        if (code == Position.EMPTY) {
+            return 0L;
+        }
+        return targets(position, sq, Position.colorOf(code), Position.typeOf(code));
+    }
+
+    private static long targets(Position position, int sq, int color, int type) {
+        switch (type) {
+            case PAWN:
+                return pawnTargets(position, sq, color);
+            case KNIGHT:
+                return knightTargets(position, sq, color);
+            case BISHOP:
+                return bishopTargets(position, sq, color);
+            case ROOK:
+                return rookTargets(position, sq, color);
+            case QUEEN:
+                return queenTargets(position, sq, color);
+            default:
+                return kingTargets(position, sq, color);
+        }
+    }
+
+    public static long pawnTargets(Position position, int sq, int color) {
+        long pawn = 1L << sq;
+        long empty = ~position.getOccupancy();
+        long enemies = position.getOccupancy(color ^ 1);
+        int ep = position.getEnPassant();
+        if (ep != Position.NO_SQUARE && color == position.getSideToMove()) {
+            enemies |= 1L << ep;
+        }
+
+        long captures = Bitboards.pawnAttacks(sq, color) & enemies;
+        long pushes;
+        if (color == WHITE) {
+            pushes = (pawn >>> 8) & empty;
+            pushes |= ((pushes & Bitboards.ROW_5) >>> 8) & empty;
+        } else {
+            pushes = (pawn << 8) & empty;
+            pushes |= ((pushes & Bitboards.ROW_2) << 8) & empty;
+        }
+
+        return pushes | captures;
+    }
+
+    public static long knightTargets(Position position, int sq, int color) {
+        return Bitboards.knightAttacks(sq) & ~position.getOccupancy(color);
+    }
+
+    public static long bishopTargets(Position position, int sq, int color) {
+        return Bitboards.bishopAttacks(sq, position.getOccupancy()) & ~position.getOccupancy(color);
+    }
+
+    public static long rookTargets(Position position, int sq, int color) {
+        return Bitboards.rookAttacks(sq, position.getOccupancy()) & ~position.getOccupancy(color);
+    }
+
+    public static long queenTargets(Position position, int sq, int color) {
+        long occupied = position.getOccupancy();
+        return (Bitboards.rookAttacks(sq, occupied) | Bitboards.bishopAttacks(sq, occupied))
+                & ~position.getOccupancy(color);
+    }
+
+    public static long kingTargets(Position position, int sq, int color) {
+        long targets = Bitboards.kingAttacks(sq) & ~position.getOccupancy(color);
+        return targets | castlingTargets(position, sq, color);
+    }
+
+    /**
+     * Checks whether any piece of a color attacks a square.
+     *
+     * @param position position to inspect
+     * @param sq       square in question
+     * @param byColor  attacking side
+     * @return true if a piece of byColor attacks sq
+     */
+    public static boolean isSquareAttacked(Position position, int sq, int byColor) {
+        long occupied = position.getOccupancy();
+
+        if ((Bitboards.pawnAttacks(sq, byColor ^ 1) & position.getPieces(byColor, PAWN)) != 0) {
+            return true;
+        }
+        if ((Bitboards.knightAttacks(sq) & position.getPieces(byColor, KNIGHT)) != 0) {
+            return true;
+        }
+        if ((Bitboards.kingAttacks(sq) & position.getPieces(byColor, KING)) != 0) {
+            return true;
+        }
+
+        long queens = position.getPieces(byColor, QUEEN);
+        long diagonal = position.getPieces(byColor, BISHOP) | queens;
+        if (diagonal != 0 && (Bitboards.bishopAttacks(sq, occupied) & diagonal) != 0) {
+            return true;
+        }
+        long straight = position.getPieces(byColor, ROOK) | queens;
+        return straight != 0 && (Bitboards.rookAttacks(sq, occupied) & straight) != 0;
+    }
+
+    /**
+     * @param position position to inspect
+     * @param sq       square in question
+     * @param byColor  attacking side
+     * @param occupied occupancy the sliding pieces are blocked by
+     * @return squares of the pieces of byColor attacking sq
+     */
+    public static long attackersTo(Position position, int sq, int byColor, long occupied) {
+        long queens = position.getPieces(byColor, QUEEN);
+        return (Bitboards.pawnAttacks(sq, byColor ^ 1) & position.getPieces(byColor, PAWN))
+                | (Bitboards.knightAttacks(sq) & position.getPieces(byColor, KNIGHT))
+                | (Bitboards.kingAttacks(sq) & position.getPieces(byColor, KING))
+                | (Bitboards.bishopAttacks(sq, occupied) & (position.getPieces(byColor, BISHOP) | queens))
+                | (Bitboards.rookAttacks(sq, occupied) & (position.getPieces(byColor, ROOK) | queens));
+    }
+
+    /**
+     * @param position position to inspect
+     * @param color    side whose pieces may be pinned
+     * @param king     square of that side's king
+     * @return pieces of color that shield their king from an enemy slider
+     */
+    public static long pinnedPieces(Position position, int color, int king) {
+        int enemy = color ^ 1;
+        long occupied = position.getOccupancy();
+        long queens = position.getPieces(enemy, QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, 0L) & (position.getPieces(enemy, ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, 0L) & (position.getPieces(enemy, BISHOP) | queens));
+        long pinned = 0L;
+
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & position.getOccupancy(color);
+            }
+        }
+
+        return pinned;
+    }
+
+    private static boolean isLegalEnPassant(Position position, int color, int king, int from, int ep) {
+        int captured = ep + (color == WHITE ? 8 : -8);
+        long occupied = (position.getOccupancy() ^ (1L << from) ^ (1L << captured)) | (1L << ep);
+        return (attackersTo(position, king, color ^ 1, occupied) & ~(1L << captured)) == 0;
+    }
+
+    /*
+     * Castling is only generated when the king is on its home square, the
+     * right is still held, the squares in between are empty and neither the
+     * king's square nor the squares it passes over are attacked.
+     */
+    private static long castlingTargets(Position position, int sq, int color) {
+        int rights = position.getCastling();
+        int home = color == WHITE ? 60 : 4;
+        int kingside = color == WHITE ? Position.WHITE_KINGSIDE : Position.BLACK_KINGSIDE;
+        int queenside = color == WHITE ? Position.WHITE_QUEENSIDE : Position.BLACK_QUEENSIDE;
+
+        if (sq != home || (rights & (kingside | queenside)) == 0) {
+            return 0L;
+        }
+
+        int enemy = color ^ 1;
+        if (isSquareAttacked(position, sq, enemy)) {
+            return 0L;
+        }
+
+        long occupied = position.getOccupancy();
+        long targets = 0L;
+
+        if ((rights & kingside) != 0 && (occupied & (3L << (sq + 1))) == 0
+                && !isSquareAttacked(position, sq + 1, enemy)
+                && !isSquareAttacked(position, sq + 2, enemy)) {
+            targets |= 1L << (sq + 2);
+        }
+        if ((rights & queenside) != 0 && (occupied & (7L << (sq - 3))) == 0
+                && !isSquareAttacked(position, sq - 1, enemy)
+                && !isSquareAttacked(position, sq - 2, enemy)) {
+            targets |= 1L << (sq - 2);
+        }
+
+        return targets;
+    }
+}
@@ -0,0 +1,34 @@
+package Core;
+
+/**
+ * Reusable buffer of packed {@link Move}s. Sized for the largest legal move
+ * count of any chess position, so it never grows; keep one per ply and
+ * {@link #clear()} it instead of allocating a new one.
+ */
+public final class MoveList {
+    // No legal position has more than 218 moves
+    public static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int i) {
+        return moves[i];
+    }
+
+    public void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+}
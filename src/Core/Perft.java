@@ -0,0 +1,132 @@
+package Core;
+
+import java.util.Arrays;
+
+/**
+ * Move generation test: counts the leaf nodes of the legal move tree to a
+ * fixed depth. Moves come from {@link MoveGenerator#generateLegal}, the same
+ * path the game's {@code Management.Ruling} uses, so every generated move is
+ * played without a king safety check.
+ * <p>
+ * Run without arguments to check the built-in positions against their known
+ * node counts, or as {@code Core.Perft <depth> [fen]} for a per-move divide.
+ */
+public final class Perft {
+
+    /*
+     * Standard test positions with published node counts. Each row is the
+     * FEN, the depth and the expected count.
+     */
+    private static final Object[][] SUITE = {
+            {Position.START_FEN, 5, 4865609L},
+            {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 4, 4085603L},
+            {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 5, 674624L},
+            {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 4, 422333L},
+            {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 4, 2103487L},
+            {"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 4, 3894594L},
+    };
+
+    private final Position position;
+    // One move list per remaining depth, so counting never allocates
+    private final MoveList[] moves;
+
+    public Perft(Position position, int maxDepth) {
+        this.position = position;
+        this.moves = new MoveList[maxDepth + 1];
+        for (int i = 0; i <= maxDepth; i++) {
+            moves[i] = new MoveList();
+        }
+    }
+
+    /**
+     * @param depth number of plies to expand
+     * @return number of leaf nodes at that depth
+     */
+    public long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        MoveList list = moves[depth];
+        MoveGenerator.generateLegal(position, list);
+        if (depth == 1) {
+            return list.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            position.makeMove(list.get(i));
+            nodes += count(depth - 1);
+            position.unmakeMove();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Counts the nodes below each root move and prints them, followed by the
+     * total, elapsed time and throughput.
+     *
+     * @param depth number of plies to expand
+     * @return total number of leaf nodes
+     */
+    public long divide(int depth) {
+        long start = System.nanoTime();
+        long total = 0;
+        MoveList root = new MoveList();
+        MoveGenerator.generateLegal(position, root);
+
+        for (int i = 0; i < root.size(); i++) {
+            int move = root.get(i);
+            position.makeMove(move);
+            long nodes = count(depth - 1);
+            position.unmakeMove();
+
+            total += nodes;
+            System.out.println(Move.toString(move) + ": " + nodes);
+        }
+
+        report(total, System.nanoTime() - start);
+        return total;
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0) {
+            int depth = Integer.parseInt(args[0]);
+            String fen = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length))
+                    : Position.START_FEN;
+            new Perft(Position.fromFen(fen), depth).divide(depth);
+            return;
+        }
+
+        boolean passed = true;
+        long totalNodes = 0;
+        long totalTime = 0;
+
+        for (Object[] test : SUITE) {
+            String fen = (String) test[0];
+            int depth = (Integer) test[1];
+            long expected = (Long) test[2];
+
+            long start = System.nanoTime();
+            long nodes = new Perft(Position.fromFen(fen), depth).count(depth);
+            long elapsed = System.nanoTime() - start;
+            totalNodes += nodes;
+            totalTime += elapsed;
+
+            boolean ok = nodes == expected;
+            passed &= ok;
+            System.out.printf("%s depth %d: %d nodes (expected %d) %s, %.0f knps%n",
+                    fen, depth, nodes, expected, ok ? "OK" : "FAILED", nodes / (elapsed / 1e6));
+        }
+
+        report(totalNodes, totalTime);
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static void report(long nodes, long nanos) {
+        System.out.printf("Nodes: %d, time: %.3f s, %.0f nodes/s%n", nodes, nanos / 1e9, nodes / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,587 @@
+package Core;
+
+import java.util.Arrays;
+
+/**
+ * Swing-free game state: piece placement, side to move and move application.
+ * Placement is kept both as a mailbox and as per-color and per-type bitboards
+ * (see {@link Bitboards}).
+ * <p>
+ * Squares are indexed 0..63 row by row from the top of the board, so index
+ * {@code y * 8 + x} is the square {@code Board.getBoard()[y][x]}: 0 is a8 and
+ * 63 is h1. Colors follow the {@code Pieces.Piece} convention, 0 for black and
+ * 1 for white.
+ */
+public final class Position {
+    public static final int BLACK = 0;
+    public static final int WHITE = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int EMPTY = -1;
+    public static final int NO_SQUARE = -1;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_CHARS = "pnbrqk";
+
+    // Flag bits of an undo record, see pushUndo
+    private static final long UNDO_EN_PASSANT = 1L << 31;
+    private static final long UNDO_CASTLING = 1L << 32;
+
+    // Castling rights that survive a move touching each square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            CASTLING_MASK[sq] = 15;
+        }
+        CASTLING_MASK[0] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[4] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[7] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[56] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[63] &= ~WHITE_KINGSIDE;
+    }
+
+    // Parsed once so new games are a plain array copy
+    private static final Position START = fromFen(START_FEN);
+
+    private final byte[] squares;
+    private final long[] colors;
+    private final long[] types;
+    private final int[] kingSquare;
+    private int sideToMove;
+    private int castling;
+    private int enPassant;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    private long key;
+    private long pawnKey;
+
+    // Material and piece-square sums, white minus black, and the game phase;
+    // see PieceSquareTables
+    private int midgame;
+    private int endgame;
+    private int phase;
+
+    // Undo records and keys of the positions before each move played so
+    // far, see pushUndo
+    private long[] undo;
+    private long[] keys;
+    private int ply;
+
+    /**
+     * Constructs an empty position with white to move.
+     */
+    public Position() {
+        squares = new byte[64];
+        colors = new long[2];
+        types = new long[6];
+        kingSquare = new int[]{NO_SQUARE, NO_SQUARE};
+        Arrays.fill(squares, (byte) EMPTY);
+        sideToMove = WHITE;
+        enPassant = NO_SQUARE;
+        fullmoveNumber = 1;
+        undo = new long[16];
+        keys = new long[16];
+    }
+
+    /**
+     * Constructs an independent copy of another position.
+     *
+     * @param other position to copy
+     */
+    public Position(Position other) {
+        squares = other.squares.clone();
+        colors = other.colors.clone();
+        types = other.types.clone();
+        kingSquare = other.kingSquare.clone();
+        sideToMove = other.sideToMove;
+        castling = other.castling;
+        enPassant = other.enPassant;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        key = other.key;
+        pawnKey = other.pawnKey;
+        midgame = other.midgame;
+        endgame = other.endgame;
+        phase = other.phase;
+        undo = other.undo.clone();
+        keys = other.keys.clone();
+        ply = other.ply;
+    }
+
+    /**
+     * @return a new position holding the standard initial setup
+     */
+    public static Position startPosition() {
+        return new Position(START);
+    }
+
+    /**
+     * Parses a position in Forsyth-Edwards Notation. The move counters are
+     * optional.
+     *
+     * @param fen FEN record
+     * @return the parsed position
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static Position fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Incomplete FEN: " + fen);
+        }
+
+        Position position = new Position();
+        int sq = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            char c = fields[0].charAt(i);
+            if (c == '/') {
+                continue;
+            }
+            if (c >= '1' && c <= '8') {
+                sq += c - '0';
+                continue;
+            }
+            int type = PIECE_CHARS.indexOf(Character.toLowerCase(c));
+            if (type < 0 || sq > 63) {
+                throw new IllegalArgumentException("Bad piece placement: " + fields[0]);
+            }
+            position.put(sq++, code(Character.isUpperCase(c) ? WHITE : BLACK, type));
+        }
+        if (sq != 64) {
+            throw new IllegalArgumentException("Bad piece placement: " + fields[0]);
+        }
+
+        position.sideToMove = fields[1].equals("b") ? BLACK : WHITE;
+
+        for (int i = 0; i < fields[2].length(); i++) {
+            switch (fields[2].charAt(i)) {
+                case 'K': position.castling |= WHITE_KINGSIDE; break;
+                case 'Q': position.castling |= WHITE_QUEENSIDE; break;
+                case 'k': position.castling |= BLACK_KINGSIDE; break;
+                case 'q': position.castling |= BLACK_QUEENSIDE; break;
+                default: break;
+            }
+        }
+
+        position.enPassant = fields[3].equals("-") ? NO_SQUARE : parseSquare(fields[3]);
+        if (fields.length > 4) position.halfmoveClock = Integer.parseInt(fields[4]);
+        if (fields.length > 5) position.fullmoveNumber = Integer.parseInt(fields[5]);
+        position.key = position.computeKey();
+        return position;
+    }
+
+    /**
+     * @return this position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder();
+        for (int y = 0; y < 8; y++) {
+            int empty = 0;
+            for (int x = 0; x < 8; x++) {
+                int code = squares[y * 8 + x];
+                if (code == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char c = PIECE_CHARS.charAt(typeOf(code));
+                fen.append(colorOf(code) == WHITE ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) fen.append(empty);
+            if (y < 7) fen.append('/');
+        }
+
+        fen.append(sideToMove == WHITE ? " w " : " b ");
+        if (castling == 0) fen.append('-');
+        if ((castling & WHITE_KINGSIDE) != 0) fen.append('K');
+        if ((castling & WHITE_QUEENSIDE) != 0) fen.append('Q');
+        if ((castling & BLACK_KINGSIDE) != 0) fen.append('k');
+        if ((castling & BLACK_QUEENSIDE) != 0) fen.append('q');
+        fen.append(' ').append(enPassant == NO_SQUARE ? "-" : squareName(enPassant));
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    public static int code(int color, int type) {
+        return (color << 3) | type;
+    }
+
+    public static int colorOf(int code) {
+        return code >> 3;
+    }
+
+    public static int typeOf(int code) {
+        return code & 7;
+    }
+
+    public static int square(int x, int y) {
+        return y * 8 + x;
+    }
+
+    public static String squareName(int sq) {
+        return "" + (char) ('a' + (sq & 7)) + (char) ('8' - (sq >> 3));
+    }
+
+    public static int parseSquare(String name) {
+        if (name.length() != 2) {
+            throw new IllegalArgumentException("Bad square: " + name);
+        }
+        int x = name.charAt(0) - 'a';
+        int y = '8' - name.charAt(1);
+        if (x < 0 || x > 7 || y < 0 || y > 7) {
+            throw new IllegalArgumentException("Bad square: " + name);
+        }
+        return square(x, y);
+    }
+
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+    public boolean isEmpty(int sq) {
+        return squares[sq] == EMPTY;
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int color) {
+        key ^= Zobrist.side(sideToMove) ^ Zobrist.side(color);
+        this.sideToMove = color;
+    }
+
+    public int getCastling() {
+        return castling;
+    }
+
+    public int getEnPassant() {
+        return enPassant;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return set of all occupied squares
+     */
+    public long getOccupancy() {
+        return colors[WHITE] | colors[BLACK];
+    }
+
+    /**
+     * @return set of squares occupied by the given color
+     */
+    public long getOccupancy(int color) {
+        return colors[color];
+    }
+
+    /**
+     * @return set of squares holding the given piece type, either color
+     */
+    public long getPieces(int type) {
+        return types[type];
+    }
+
+    /**
+     * @return set of squares holding the given piece type and color
+     */
+    public long getPieces(int color, int type) {
+        return colors[color] & types[type];
+    }
+
+    public int getKingSquare(int color) {
+        return kingSquare[color];
+    }
+
+    /**
+     * @return Zobrist key of the placement, side to move, castling rights and
+     * en passant square, kept up to date by every change to them
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * @return middlegame material and piece-square sum, white minus black,
+     * kept up to date as pieces are put and removed
+     */
+    public int getMidgameScore() {
+        return midgame;
+    }
+
+    /**
+     * @return endgame material and piece-square sum, white minus black
+     */
+    public int getEndgameScore() {
+        return endgame;
+    }
+
+    /**
+     * @return game phase, {@link PieceSquareTables#MAX_PHASE} with all
+     * pieces on the board down to 0 with only kings and pawns
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return Zobrist key of the pawns alone, for caching pawn structure
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * Computes the Zobrist key from scratch, for checking the incrementally
+     * maintained {@link #getKey()}.
+     *
+     * @return key of the current state
+     */
+    public long computeKey() {
+        long k = Zobrist.side(sideToMove) ^ Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+        for (int sq = 0; sq < 64; sq++) {
+            if (squares[sq] != EMPTY) {
+                k ^= Zobrist.piece(squares[sq], sq);
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Counts earlier occurrences of the current position among the moves
+     * played since the last capture or pawn move; only those can repeat it.
+     *
+     * @return 0 for a new position, 2 or more for a threefold repetition
+     */
+    public int getRepetitions() {
+        int count = 0;
+        int earliest = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 2; i >= earliest; i -= 2) {
+            if (keys[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Places a piece, replacing whatever occupied the square. Does not touch
+     * the side to move or any other game state.
+     *
+     * @param sq   target square
+     * @param code piece code built with {@link #code(int, int)}
+     */
+    public void put(int sq, int code) {
+        if (squares[sq] != EMPTY) {
+            remove(sq);
+        }
+        squares[sq] = (byte) code;
+        key ^= Zobrist.piece(code, sq);
+        if (typeOf(code) == PAWN) {
+            pawnKey ^= Zobrist.piece(code, sq);
+        }
+        midgame += PieceSquareTables.midgame(code, sq);
+        endgame += PieceSquareTables.endgame(code, sq);
+        phase += PieceSquareTables.phase(typeOf(code));
+        colors[colorOf(code)] |= 1L << sq;
+        types[typeOf(code)] |= 1L << sq;
+        if (typeOf(code) == KING) {
+            kingSquare[colorOf(code)] = sq;
+        }
+    }
+
+    /**
+     * Empties a square.
+     *
+     * @param sq square to clear
+     * @return code of the removed piece, or {@link #EMPTY}
+     */
+    public int remove(int sq) {
+        int code = squares[sq];
+        if (code == EMPTY) {
+            return EMPTY;
+        }
+        squares[sq] = (byte) EMPTY;
+        key ^= Zobrist.piece(code, sq);
+        if (typeOf(code) == PAWN) {
+            pawnKey ^= Zobrist.piece(code, sq);
+        }
+        midgame -= PieceSquareTables.midgame(code, sq);
+        endgame -= PieceSquareTables.endgame(code, sq);
+        phase -= PieceSquareTables.phase(typeOf(code));
+        colors[colorOf(code)] &= ~(1L << sq);
+        types[typeOf(code)] &= ~(1L << sq);
+        if (typeOf(code) == KING && kingSquare[colorOf(code)] == sq) {
+            kingSquare[colorOf(code)] = NO_SQUARE;
+        }
+        return code;
+    }
+
+    /**
+     * Plays a move, promoting pawns to queens.
+     *
+     * @see #makeMove(int, int, int)
+     */
+    public void makeMove(int from, int to) {
+        makeMove(from, to, QUEEN);
+    }
+
+    /**
+     * Plays a packed {@link Move}, as produced by {@link MoveGenerator}.
+     *
+     * @see #makeMove(int, int, int)
+     */
+    public void makeMove(int move) {
+        int promotion = Move.promotion(move);
+        makeMove(Move.from(move), Move.to(move), promotion == 0 ? QUEEN : promotion);
+    }
+
+    /**
+     * Plays a move for the piece on {@code from} and hands the turn to the
+     * other side. Castling is given as the king's two-square move, and en
+     * passant as the pawn's diagonal move onto the en passant square. The move
+     * is assumed to be pseudo-legal; it can be taken back with
+     * {@link #unmakeMove()}.
+     *
+     * @param from      origin square
+     * @param to        target square
+     * @param promotion piece type a pawn reaching the last rank becomes
+     */
+    public void makeMove(int from, int to, int promotion) {
+        int moving = squares[from];
+        int captured = squares[to];
+        int color = colorOf(moving);
+        int type = typeOf(moving);
+        long flags = 0;
+
+        pushUndo(from, to, moving, captured);
+        key ^= Zobrist.side(sideToMove) ^ Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+        remove(from);
+
+        if (type == PAWN && to == enPassant) {
+            captured = remove(to + (color == WHITE ? 8 : -8));
+            flags |= UNDO_EN_PASSANT;
+        }
+
+        if (type == KING && Math.abs(to - from) == 2) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            put(rookTo, remove(rookFrom));
+            flags |= UNDO_CASTLING;
+        }
+        undo[ply - 1] |= flags;
+
+        if (type == PAWN && (to < 8 || to >= 56)) {
+            put(to, code(color, promotion));
+        } else {
+            put(to, moving);
+        }
+
+        enPassant = NO_SQUARE;
+        if (type == PAWN && Math.abs(to - from) == 16) {
+            enPassant = (from + to) / 2;
+        }
+
+        castling &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        halfmoveClock = (type == PAWN || captured != EMPTY) ? 0 : halfmoveClock + 1;
+        if (color == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = color ^ 1;
+        key ^= Zobrist.side(sideToMove) ^ Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+    }
+
+    /**
+     * Takes back the last move played with {@code makeMove}, restoring the
+     * captured piece and all state the move changed.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+
+        long record = undo[--ply];
+        int from = (int) (record & 63);
+        int to = (int) ((record >>> 6) & 63);
+        int moving = (int) ((record >>> 12) & 15);
+        int captured = (int) ((record >>> 16) & 15);
+        int color = colorOf(moving);
+
+        remove(to);
+        put(from, moving);
+
+        if ((record & UNDO_EN_PASSANT) != 0) {
+            put(to + (color == WHITE ? 8 : -8), code(color ^ 1, PAWN));
+        } else if (captured != 15) {
+            put(to, captured);
+        }
+
+        if ((record & UNDO_CASTLING) != 0) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            put(rookFrom, remove(rookTo));
+        }
+
+        castling = (int) ((record >>> 20) & 15);
+        int ep = (int) ((record >>> 24) & 127);
+        enPassant = ep == 127 ? NO_SQUARE : ep;
+        halfmoveClock = (int) ((record >>> 33) & 0xFFFF);
+        if (color == BLACK) {
+            fullmoveNumber--;
+        }
+        sideToMove = color;
+        key = keys[ply];
+    }
+
+    /**
+     * @return number of moves that can currently be taken back
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /*
+     * Packs everything unmakeMove needs into one long: from (6 bits), to (6),
+     * moved piece (4), captured piece (4, 15 for none), castling rights (4),
+     * en passant square (7, 127 for none), two flag bits and the halfmove
+     * clock (16). The key of the position before the move is kept alongside.
+     */
+    private void pushUndo(int from, int to, int moving, int captured) {
+        if (ply == undo.length) {
+            undo = Arrays.copyOf(undo, ply * 2);
+            keys = Arrays.copyOf(keys, ply * 2);
+        }
+        keys[ply] = key;
+        undo[ply++] = from
+                | (long) to << 6
+                | (long) moving << 12
+                | (long) (captured & 15) << 16
+                | (long) castling << 20
+                | (long) (enPassant & 127) << 24
+                | (long) Math.min(halfmoveClock, 0xFFFF) << 33;
+    }
+}
@@ -0,0 +1,74 @@
+package Core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing: a position's key is the XOR of one key per
+ * piece on its square, plus keys for black to move, the castling rights and
+ * the en passant file. A move changes the key with a handful of XORs, see
+ * {@link Position#getKey()}.
+ * <p>
+ * The keys come from a fixed seed, so a position hashes to the same value in
+ * every run and keys may be stored alongside saved games.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x5DEECE66DL;
+
+    // Indexed by piece code, so the two colors' codes 0..5 and 8..13 are used
+    private static final long[][] PIECES = new long[16][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECES) {
+            for (int sq = 0; sq < 64; sq++) {
+                keys[sq] = random.nextLong();
+            }
+        }
+
+        // Each right has its own key; a set of rights is their XOR
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            rights[i] = random.nextLong();
+        }
+        for (int set = 0; set < 16; set++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((set & (1 << i)) != 0) {
+                    CASTLING[set] ^= rights[i];
+                }
+            }
+        }
+
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(int code, int sq) {
+        return PIECES[code][sq];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return key of the en passant file, or 0 for {@link Position#NO_SQUARE}
+     */
+    public static long enPassant(int sq) {
+        return sq == Position.NO_SQUARE ? 0L : EN_PASSANT[sq & 7];
+    }
+
+    /**
+     * @return key of the side to move, 0 for white
+     */
+    public static long side(int color) {
+        return color == Position.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+}
@@ -0,0 +1,78 @@
+package Engine;
+
+import Core.PieceSquareTables;
+import Core.Position;
+
+/**
+ * Static evaluation for the {@link Search}, in centipawns from the point of
+ * view of the side to move: material, piece-square values and pawn
+ * structure, blended between middlegame and endgame by the game phase.
+ * <p>
+ * The material and piece-square sums are kept by {@link Position} as pieces
+ * move, and the pawn structure is looked up in a {@link PawnTable}, so
+ * evaluating a leaf is usually a few arithmetic operations and one probe.
+ * Run with {@code -Dchess.evalcheck=true} to compare every evaluation
+ * against a full recount of the board.
+ */
+public final class Evaluation {
+    private static final boolean CHECK = Boolean.getBoolean("chess.evalcheck");
+
+    private Evaluation() {
+    }
+
+    /**
+     * Evaluates with the pawn structure scored afresh, for callers without
+     * a {@link PawnTable}.
+     */
+    public static int evaluate(Position position) {
+        return evaluate(position, PawnStructure.evaluate(position));
+    }
+
+    public static int evaluate(Position position, PawnTable pawns) {
+        int pawnScore = pawns.score(pawns.probe(position));
+        if (CHECK) {
+            check(position, pawnScore);
+        }
+        return evaluate(position, pawnScore);
+    }
+
+    /**
+     * Evaluates by walking the board instead of reading the incremental
+     * sums and the pawn table, for checking them.
+     */
+    public static int evaluateFull(Position position) {
+        int midgame = 0;
+        int endgame = 0;
+        int phase = 0;
+
+        for (int sq = 0; sq < 64; sq++) {
+            int code = position.pieceAt(sq);
+            if (code != Position.EMPTY) {
+                midgame += PieceSquareTables.midgame(code, sq);
+                endgame += PieceSquareTables.endgame(code, sq);
+                phase += PieceSquareTables.phase(Position.typeOf(code));
+            }
+        }
+
+        int pawnScore = PawnStructure.evaluate(position);
+        int score = PieceSquareTables.taper(midgame + PawnStructure.midgame(pawnScore),
+                endgame + PawnStructure.endgame(pawnScore), phase);
+        return position.getSideToMove() == Position.WHITE ? score : -score;
+    }
+
+    private static int evaluate(Position position, int pawnScore) {
+        int score = PieceSquareTables.taper(position.getMidgameScore() + PawnStructure.midgame(pawnScore),
+                position.getEndgameScore() + PawnStructure.endgame(pawnScore), position.getPhase());
+        return position.getSideToMove() == Position.WHITE ? score : -score;
+    }
+
+    private static void check(Position position, int pawnScore) {
+        int full = evaluateFull(position);
+        int incremental = evaluate(position, pawnScore);
+
+        if (incremental != full) {
+            throw new IllegalStateException("Incremental evaluation " + incremental + " differs from "
+                    + full + " in " + position.toFen());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package Engine;
+
+import Core.Move;
+import Core.MoveList;
+import Core.Position;
+
+/**
+ * Orders the moves of one {@link Search} so the likely best move comes
+ * first: the table move, then captures and promotions by most valuable
+ * victim and least valuable attacker, then the quiet moves that refuted
+ * other moves before. Those are the two killer moves of the ply, the move
+ * that last answered the opponent's previous move, and finally the rest by
+ * how often they caused cutoffs.
+ * <p>
+ * The tables are plain arrays owned by a single search thread.
+ */
+final class MoveOrdering {
+    private static final int HASH_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 28;
+    private static final int KILLER = 1 << 27;
+    private static final int COUNTER = KILLER - 2;
+
+    // History scores stay below the counter move, and are halved when one
+    // grows past this
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    // By moving piece code and target square
+    private final int[][] history = new int[16][64];
+    // Reply to a move, by that move's piece code and target square
+    private final int[][] counters = new int[16][64];
+    private final int[][] scores = new int[Search.MAX_PLY][MoveList.CAPACITY];
+
+    /**
+     * Scores the moves of a ply for {@link #next}.
+     *
+     * @param list     moves to order
+     * @param ply      distance from the root
+     * @param hashMove move from the transposition table, or {@link Move#NONE}
+     * @param previous opponent's move that led here, or {@link Move#NONE}
+     */
+    void score(MoveList list, int ply, int hashMove, int previous) {
+        int[] score = scores[ply];
+        int killer0 = killers[ply][0];
+        int killer1 = killers[ply][1];
+        int counter = previous == Move.NONE ? Move.NONE : counters[Move.piece(previous)][Move.to(previous)];
+
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.get(i);
+
+            if (move == hashMove) {
+                score[i] = HASH_MOVE;
+            } else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                int victim = Move.isCapture(move) ? Position.typeOf(Move.captured(move)) + 1 : 0;
+                score[i] = CAPTURE + (victim * 8 + Move.promotion(move)) * 8 - Position.typeOf(Move.piece(move));
+            } else if (move == killer0) {
+                score[i] = KILLER + 1;
+            } else if (move == killer1) {
+                score[i] = KILLER;
+            } else if (move == counter) {
+                score[i] = COUNTER;
+            } else {
+                score[i] = history[Move.piece(move)][Move.to(move)];
+            }
+        }
+    }
+
+    /**
+     * Moves the best scored of the moves from index {@code i} on to index i,
+     * so a cutoff early in the list spares sorting the rest.
+     *
+     * @return the move now at index i
+     */
+    int next(MoveList list, int ply, int i) {
+        int[] score = scores[ply];
+        int best = i;
+        for (int j = i + 1; j < list.size(); j++) {
+            if (score[j] > score[best]) {
+                best = j;
+            }
+        }
+
+        int move = list.get(best);
+        if (best != i) {
+            list.set(best, list.get(i));
+            list.set(i, move);
+            int s = score[best];
+            score[best] = score[i];
+            score[i] = s;
+        }
+        return move;
+    }
+
+    /**
+     * Rewards a quiet move that caused a beta cutoff, and penalizes the
+     * quiet moves searched before it without one.
+     *
+     * @param list     moves of the ply, in the order they were searched
+     * @param searched number of moves searched, the cutoff move last
+     */
+    void cutoff(MoveList list, int searched, int ply, int depth, int previous) {
+        int move = list.get(searched - 1);
+        if (Move.isCapture(move) || Move.isPromotion(move)) {
+            return;
+        }
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (previous != Move.NONE) {
+            counters[Move.piece(previous)][Move.to(previous)] = move;
+        }
+
+        int bonus = depth * depth;
+        addHistory(move, bonus);
+        for (int i = 0; i < searched - 1; i++) {
+            int quiet = list.get(i);
+            if (!Move.isCapture(quiet) && !Move.isPromotion(quiet)) {
+                addHistory(quiet, -bonus);
+            }
+        }
+    }
+
+    private void addHistory(int move, int bonus) {
+        int[] row = history[Move.piece(move)];
+        int to = Move.to(move);
+        row[to] += bonus;
+
+        if (Math.abs(row[to]) >= HISTORY_LIMIT) {
+            for (int[] pieceHistory : history) {
+                for (int sq = 0; sq < 64; sq++) {
+                    pieceHistory[sq] /= 2;
+                }
+            }
+        }
+    }
+}
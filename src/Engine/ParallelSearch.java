@@ -0,0 +1,203 @@
+package Engine;
+
+import Core.Move;
+import Core.Position;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lazy SMP: several {@link Search}es run the same root at once, each on its
+ * own copy of the position, and share one {@link TranspositionTable}. They
+ * never talk to each other; the helpers fill the table with results the main
+ * search then finds, so it reaches each depth sooner.
+ * <p>
+ * The main search runs on the calling thread and decides when to stop. The
+ * helpers run on a pool that is kept from one call to the next, until
+ * {@link #shutdown()}. The move of whichever search completed the deepest
+ * iteration is played, the main search's on a tie.
+ */
+public final class ParallelSearch {
+    private final int threads;
+    private final TranspositionTable table;
+    private final ExecutorService helpers;
+    // One per thread, kept from one call to the next so pawn structures
+    // scored for the last move are still there for the next
+    private final PawnTable[] pawnTables;
+    private PrintStream info;
+
+    // The searches of the running call, for stop()
+    private volatile Search[] running;
+
+    private int completedDepth;
+    private int score;
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long pawnProbes;
+    private long pawnHits;
+    private long elapsedNanos;
+
+    /**
+     * @param threads number of searches to run at once, at least 1
+     * @param table   table shared by all of them
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is needed: " + threads);
+        }
+
+        this.threads = threads;
+        this.table = table;
+        this.pawnTables = new PawnTable[threads];
+        for (int i = 0; i < threads; i++) {
+            pawnTables[i] = new PawnTable();
+        }
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread thread = new Thread(r, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setInfo(PrintStream info) {
+        this.info = info;
+    }
+
+    /**
+     * Searches with every thread until the main search runs out of time or
+     * reaches the depth limit, or {@link #stop()} is called.
+     *
+     * @param position position to search from; each thread copies it
+     * @param millis   time budget in milliseconds
+     * @param maxDepth depth limit in plies
+     * @return best move found, or {@link Move#NONE} if there is no legal move
+     */
+    public int think(Position position, long millis, int maxDepth) {
+        long start = System.nanoTime();
+        Search[] searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(position, table, pawnTables[i]);
+            searches[i].setHelper(i);
+        }
+        searches[0].setInfo(info);
+        running = searches;
+
+        List<Future<Integer>> futures = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            Search helper = searches[i];
+            futures.add(helpers.submit(() -> helper.think(millis, maxDepth)));
+        }
+
+        searches[0].think(millis, maxDepth);
+        for (int i = 1; i < threads; i++) {
+            searches[i].stop();
+        }
+        for (Future<Integer> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        running = null;
+
+        Search best = searches[0];
+        nodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        pawnProbes = 0;
+        pawnHits = 0;
+        for (Search search : searches) {
+            nodes += search.getNodes();
+            cutoffs += search.getCutoffs();
+            firstMoveCutoffs += search.getFirstMoveCutoffs();
+            pawnProbes += search.getPawnProbes();
+            pawnHits += search.getPawnHits();
+            if (search.getCompletedDepth() > best.getCompletedDepth()) {
+                best = search;
+            }
+        }
+        completedDepth = best.getCompletedDepth();
+        score = best.getScore();
+        elapsedNanos = System.nanoTime() - start;
+
+        if (info != null) {
+            info.printf("threads %d depth %d nodes %d nps %d time %d hashhits %.1f%% firstcutoffs %.1f%% "
+                            + "pawnhits %.1f%% bestmove %s%n", threads, completedDepth, nodes, getNodesPerSecond(),
+                    elapsedNanos / 1_000_000, table.getHitRate() * 100, getFirstMoveCutoffRate() * 100,
+                    getPawnHitRate() * 100, Move.toString(best.getBestMove()));
+        }
+        return best.getBestMove();
+    }
+
+    /**
+     * Asks a running call to return as soon as possible. Safe to call from
+     * any thread.
+     */
+    public void stop() {
+        Search[] searches = running;
+        if (searches != null) {
+            for (Search search : searches) {
+                search.stop();
+            }
+        }
+    }
+
+    /**
+     * Stops any running call and releases the helper threads.
+     */
+    public void shutdown() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdown();
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return nodes searched by all threads together
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return share of beta cutoffs caused by the first move searched, over
+     * all threads
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : firstMoveCutoffs / (double) cutoffs;
+    }
+
+    /**
+     * @return share of evaluations that found their pawn structure in the
+     * pawn table of their thread
+     */
+    public double getPawnHitRate() {
+        return pawnProbes == 0 ? 0 : pawnHits / (double) pawnProbes;
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+}
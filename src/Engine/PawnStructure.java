@@ -0,0 +1,139 @@
+package Engine;
+
+import Core.Bitboards;
+import Core.Position;
+
+/**
+ * Pawn structure terms of the {@link Evaluation}: doubled, isolated and
+ * backward pawns are penalized and passed pawns rewarded by how far they
+ * have advanced. The result depends on the pawns alone, which is what lets
+ * {@link PawnTable} cache it by {@link Position#getPawnKey()}.
+ * <p>
+ * Scores are packed as by {@link #pack}: middlegame and endgame halves,
+ * white minus black.
+ */
+public final class PawnStructure {
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -15;
+    private static final int ISOLATED_ENDGAME = -10;
+    private static final int BACKWARD_MIDGAME = -10;
+    private static final int BACKWARD_ENDGAME = -8;
+
+    // By ranks advanced from the pawn's own back rank
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 20, 35, 60, 100, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // By color and square: squares ahead on the pawn's own and adjacent
+    // files, where an enemy pawn stops it from being passed
+    private static final long[][] PASSED_SPANS = new long[2][64];
+    // By color and square: adjacent-file squares level with or behind the
+    // pawn, where a friendly pawn could still defend it as it advances
+    private static final long[][] SUPPORT_SPANS = new long[2][64];
+
+    static {
+        for (int x = 0; x < 8; x++) {
+            FILES[x] = Bitboards.FILE_A << x;
+        }
+        for (int x = 0; x < 8; x++) {
+            ADJACENT_FILES[x] = (x > 0 ? FILES[x - 1] : 0) | (x < 7 ? FILES[x + 1] : 0);
+        }
+
+        for (int sq = 0; sq < 64; sq++) {
+            int x = sq & 7;
+            int y = sq >> 3;
+            long span = FILES[x] | ADJACENT_FILES[x];
+            // Rows above y, i.e. toward black's back rank, and below it
+            long above = (1L << (y * 8)) - 1;
+            long below = ~((1L << ((y + 1) * 8)) - 1);
+            long row = 0xFFL << (y * 8);
+
+            PASSED_SPANS[Position.WHITE][sq] = span & above;
+            PASSED_SPANS[Position.BLACK][sq] = span & below;
+            SUPPORT_SPANS[Position.WHITE][sq] = ADJACENT_FILES[x] & (below | row);
+            SUPPORT_SPANS[Position.BLACK][sq] = ADJACENT_FILES[x] & (above | row);
+        }
+    }
+
+    private PawnStructure() {
+    }
+
+    /**
+     * @return packed score of the pawn structure, white minus black
+     */
+    public static int evaluate(Position position) {
+        return evaluate(position, null, 0);
+    }
+
+    /**
+     * Scores the pawn structure and collects the passed pawns in the same
+     * pass.
+     *
+     * @param passed array to store the squares of the passed pawns of both
+     *               colors in, or null
+     * @param slot   index in passed to store them at
+     * @return packed score of the pawn structure, white minus black
+     */
+    static int evaluate(Position position, long[] passed, int slot) {
+        if (passed != null) {
+            passed[slot] = 0;
+        }
+        return score(position, Position.WHITE, passed, slot) - score(position, Position.BLACK, passed, slot);
+    }
+
+    public static int pack(int midgame, int endgame) {
+        return (midgame << 16) + endgame;
+    }
+
+    public static int midgame(int packed) {
+        return (packed + 0x8000) >> 16;
+    }
+
+    public static int endgame(int packed) {
+        return (short) packed;
+    }
+
+    private static int score(Position position, int color, long[] passed, int slot) {
+        long own = position.getPieces(color, Position.PAWN);
+        long enemy = position.getPieces(color ^ 1, Position.PAWN);
+        long enemyAttacks = Bitboards.pawnAttackSet(enemy, color ^ 1);
+        int midgame = 0;
+        int endgame = 0;
+
+        for (int x = 0; x < 8; x++) {
+            int count = Long.bitCount(own & FILES[x]);
+            if (count > 1) {
+                midgame += DOUBLED_MIDGAME * (count - 1);
+                endgame += DOUBLED_ENDGAME * (count - 1);
+            }
+        }
+
+        long pawns = own;
+        while (pawns != 0) {
+            int sq = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            if ((own & ADJACENT_FILES[sq & 7]) == 0) {
+                midgame += ISOLATED_MIDGAME;
+                endgame += ISOLATED_ENDGAME;
+            } else if ((own & SUPPORT_SPANS[color][sq]) == 0
+                    && Bitboards.contains(enemyAttacks, color == Position.WHITE ? sq - 8 : sq + 8)) {
+                midgame += BACKWARD_MIDGAME;
+                endgame += BACKWARD_ENDGAME;
+            }
+
+            if ((enemy & PASSED_SPANS[color][sq]) == 0) {
+                int advanced = color == Position.WHITE ? 7 - (sq >> 3) : sq >> 3;
+                midgame += PASSED_MIDGAME[advanced];
+                endgame += PASSED_ENDGAME[advanced];
+                if (passed != null) {
+                    passed[slot] |= 1L << sq;
+                }
+            }
+        }
+
+        return pack(midgame, endgame);
+    }
+}
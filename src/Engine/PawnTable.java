@@ -0,0 +1,111 @@
+package Engine;
+
+import Core.Position;
+
+/**
+ * Cache of {@link PawnStructure} results keyed by
+ * {@link Position#getPawnKey()}. Pawns move in few of the positions a
+ * search visits, so most leaves find their pawn structure already scored.
+ * <p>
+ * The table is a fixed number of entries, a power of two, held in parallel
+ * primitive arrays allocated once; a store simply overwrites the entry its
+ * key maps to. A table is not thread-safe: each search thread owns its own,
+ * and keeps it from one move to the next.
+ * <p>
+ * Entries also keep the passed pawns found while scoring. {@link Evaluation}
+ * only reads the score; the masks are kept for callers with terms that
+ * also depend on the pieces, such as a passed pawn's path being blocked,
+ * which cannot be cached by pawn key.
+ */
+public final class PawnTable {
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private final long[] keys;
+    private final int[] scores;
+    private final long[] passed;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * @param entries number of entries
+     * @throws IllegalArgumentException if entries is not a positive power of
+     *                                  two
+     */
+    public PawnTable(int entries) {
+        if (entries <= 0 || Integer.bitCount(entries) != 1) {
+            throw new IllegalArgumentException("Pawn table size must be a power of two: " + entries);
+        }
+
+        keys = new long[entries];
+        scores = new int[entries];
+        passed = new long[entries];
+        mask = entries - 1;
+        // An empty entry has key 0, which is only ever looked up at index 0
+        // and belongs to the position without pawns, scored 0 with none
+        // passed, so empty entries need no marking
+    }
+
+    public PawnTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * Looks up the pawn structure of a position, scoring and storing it on a
+     * miss.
+     *
+     * @return index of the entry, for {@link #score} and {@link #passed}
+     */
+    public int probe(Position position) {
+        long key = position.getPawnKey();
+        int index = (int) key & mask;
+        probes++;
+
+        if (keys[index] == key) {
+            hits++;
+        } else {
+            keys[index] = key;
+            scores[index] = PawnStructure.evaluate(position, passed, index);
+        }
+
+        return index;
+    }
+
+    /**
+     * @return packed pawn structure score of the entry, white minus black
+     * @see PawnStructure#midgame(int)
+     * @see PawnStructure#endgame(int)
+     */
+    public int score(int index) {
+        return scores[index];
+    }
+
+    /**
+     * @return squares of the passed pawns of both colors, found in the same
+     * pass as the score
+     */
+    public long passed(int index) {
+        return passed[index];
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return share of probes that found their entry, from 0 to 1
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public void resetStatistics() {
+        probes = 0;
+        hits = 0;
+    }
+}
@@ -0,0 +1,522 @@
+package Engine;
+
+import Core.Move;
+import Core.MoveGenerator;
+import Core.MoveList;
+import Core.Position;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Negamax alpha-beta search with iterative deepening and aspiration windows,
+ * bounded by a time budget. Leaves are resolved by a quiescence search over
+ * captures, skipping those that {@link StaticExchange} shows to lose
+ * material. Moves come from {@link MoveGenerator}, and a side without legal
+ * moves is mated when in check and stalemated otherwise, as in
+ * {@code Management.Ruling}.
+ * <p>
+ * A search works on its own copy of the position, so it can run on any
+ * thread while the game's position stays untouched. Results are kept in a
+ * {@link TranspositionTable} that may be shared with other searches. After
+ * each completed iteration a line with the depth, score, nodes and nodes
+ * per second is printed to the info stream, if one is set.
+ */
+public final class Search {
+    public static final int INFINITY = 32767;
+    public static final int MATE = 32000;
+    public static final int MAX_PLY = 128;
+
+    // Scores beyond this are mates, in plies from the root
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_DEPTH = 4;
+
+    // Depths a helper skips, by its number: helper n skips a depth d when
+    // (d + SKIP_PHASE[i]) / SKIP_SIZE[i] is odd, with i = (n - 1) mod 20,
+    // so helpers are spread over different depths at every iteration
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    // The clock is read once per this many nodes plus one
+    private static final int TIME_CHECK_MASK = 2047;
+
+    // Table size when a search is not handed a shared table
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    private final Position position;
+    private final TranspositionTable table;
+    // One move list per ply, so searching never allocates
+    private final MoveList[] moves;
+    // Move played at each ply of the current line
+    private final int[] played;
+    private final MoveOrdering ordering;
+    private final StaticExchange exchange;
+    private final PawnTable pawns;
+    private PrintStream info;
+    // 0 for a main search, otherwise its number among the helpers
+    private int helper;
+    // Root move a helper searches first at every iteration, or Move.NONE
+    private int helperMove;
+
+    private volatile boolean stopRequested;
+    private boolean stopped;
+    private long deadline;
+    private long startTime;
+    private long nodes;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    private int bestMove;
+    private int score;
+    private int completedDepth;
+    private long elapsedNanos;
+
+    /**
+     * @param position position to search from; it is copied
+     */
+    public Search(Position position) {
+        this(position, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param position position to search from; it is copied
+     * @param table    table to keep results in, possibly shared
+     */
+    public Search(Position position, TranspositionTable table) {
+        this(position, table, new PawnTable());
+    }
+
+    /**
+     * @param position position to search from; it is copied
+     * @param table    table to keep results in, possibly shared
+     * @param pawns    pawn table of this search alone, possibly kept from
+     *                 earlier searches
+     */
+    public Search(Position position, TranspositionTable table, PawnTable pawns) {
+        this.position = new Position(position);
+        this.table = table;
+        this.moves = new MoveList[MAX_PLY];
+        for (int i = 0; i < MAX_PLY; i++) {
+            moves[i] = new MoveList();
+        }
+        this.played = new int[MAX_PLY];
+        this.ordering = new MoveOrdering();
+        this.exchange = new StaticExchange();
+        this.pawns = pawns;
+    }
+
+    public void setInfo(PrintStream info) {
+        this.info = info;
+    }
+
+    /**
+     * Makes this a helper of a parallel search. Each helper searches its own
+     * root move first at every iteration and skips its own pattern of
+     * depths, so threads sharing a table spread over different subtrees.
+     *
+     * @param helper number of the helper, from 1
+     * @see ParallelSearch
+     */
+    public void setHelper(int helper) {
+        this.helper = helper;
+    }
+
+    /**
+     * Searches deeper and deeper until the time budget or the depth limit is
+     * reached, or {@link #stop()} is called. Only completed iterations count.
+     *
+     * @param millis   time budget in milliseconds
+     * @param maxDepth depth limit in plies
+     * @return best move found, or {@link Move#NONE} if there is no legal move
+     */
+    public int think(long millis, int maxDepth) {
+        startTime = System.nanoTime();
+        deadline = startTime + millis * 1_000_000L;
+        stopped = false;
+        nodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        pawns.resetStatistics();
+        completedDepth = 0;
+        score = 0;
+
+        MoveList root = moves[0];
+        MoveGenerator.generateLegal(position, root);
+        helperMove = root.size() > 1 && helper > 0 ? root.get(helper % root.size()) : Move.NONE;
+        moveTo(root, helperMove, 0);
+        bestMove = root.size() > 0 ? root.get(0) : Move.NONE;
+        if (root.size() <= 1) {
+            elapsedNanos = System.nanoTime() - startTime;
+            return bestMove;
+        }
+
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            if (skips(depth)) {
+                continue;
+            }
+
+            int result = aspiration(depth);
+            if (stopped) {
+                break;
+            }
+
+            score = result;
+            completedDepth = depth;
+            elapsedNanos = System.nanoTime() - startTime;
+            report();
+
+            if (Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+        }
+
+        elapsedNanos = System.nanoTime() - startTime;
+        return bestMove;
+    }
+
+    /**
+     * Asks a running search to return as soon as possible. Safe to call from
+     * any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return score of the best move in centipawns for the side to move
+     */
+    public int getScore() {
+        return score;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * @return share of beta cutoffs caused by the first move searched, 0 to
+     * 1; the closer to 1, the better the move ordering
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : firstMoveCutoffs / (double) cutoffs;
+    }
+
+    public long getPawnProbes() {
+        return pawns.getProbes();
+    }
+
+    public long getPawnHits() {
+        return pawns.getHits();
+    }
+
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /*
+     * Searches a narrow window around the previous score first and widens
+     * it on the failing side until the score falls inside.
+     */
+    private int aspiration(int depth) {
+        if (depth < ASPIRATION_DEPTH || Math.abs(score) >= MATE_BOUND) {
+            return searchRoot(depth, -INFINITY, INFINITY);
+        }
+
+        int delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(score - delta, -INFINITY);
+        int beta = Math.min(score + delta, INFINITY);
+
+        while (true) {
+            int result = searchRoot(depth, alpha, beta);
+            if (stopped) {
+                return result;
+            }
+
+            if (result <= alpha) {
+                alpha = Math.max(result - delta, -INFINITY);
+            } else if (result >= beta) {
+                beta = Math.min(result + delta, INFINITY);
+            } else {
+                return result;
+            }
+            delta *= 2;
+        }
+    }
+
+    private boolean skips(int depth) {
+        if (helper == 0) {
+            return false;
+        }
+        int i = (helper - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 == 1;
+    }
+
+    /*
+     * Searches the root moves with the best move of the previous iteration
+     * first, after a helper's own move, and keeps the best move only once
+     * the iteration has found one inside the window.
+     */
+    private int searchRoot(int depth, int alpha, int beta) {
+        MoveList root = moves[0];
+        moveTo(root, helperMove, 0);
+        moveTo(root, bestMove, helperMove == Move.NONE ? 0 : 1);
+
+        int best = -INFINITY;
+        for (int i = 0; i < root.size(); i++) {
+            int move = root.get(i);
+            played[0] = move;
+            position.makeMove(move);
+            int value = -negamax(depth - 1, 1, -beta, -Math.max(alpha, best));
+            position.unmakeMove();
+
+            if (stopped) {
+                return best;
+            }
+            if (value > best) {
+                best = value;
+                if (value > alpha && value < beta) {
+                    bestMove = move;
+                } else if (value >= beta) {
+                    bestMove = move;
+                    return value;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && (stopRequested || System.nanoTime() > deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        if (position.getHalfmoveClock() >= 100 || position.getRepetitions() > 0) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        long key = position.getKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int value = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && value >= beta)
+                        || (bound == TranspositionTable.UPPER && value <= alpha)) {
+                    return value;
+                }
+            }
+        }
+
+        MoveList list = moves[ply];
+        if (MoveGenerator.generateLegal(position, list) == 0) {
+            int color = position.getSideToMove();
+            boolean inCheck = MoveGenerator.isSquareAttacked(position, position.getKingSquare(color), color ^ 1);
+            return inCheck ? -MATE + ply : 0;
+        }
+        int previous = played[ply - 1];
+        ordering.score(list, ply, hashMove, previous);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < list.size(); i++) {
+            int move = ordering.next(list, ply, i);
+            played[ply] = move;
+            position.makeMove(move);
+            int value = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            position.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        cutoffs++;
+                        if (i == 0) {
+                            firstMoveCutoffs++;
+                        }
+                        ordering.cutoff(list, i + 1, ply, depth, previous);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bound == TranspositionTable.UPPER ? Move.NONE : bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /*
+     * Searches captures and promotions only, until the position is quiet.
+     * The side to move may stand pat on the static evaluation instead of
+     * capturing, except in check, where every evasion is searched so mates
+     * are still found.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        if ((++nodes & TIME_CHECK_MASK) == 0 && (stopRequested || System.nanoTime() > deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluation.evaluate(position, pawns);
+        }
+
+        int color = position.getSideToMove();
+        boolean inCheck = MoveGenerator.isSquareAttacked(position, position.getKingSquare(color), color ^ 1);
+        MoveList list = moves[ply];
+        int best = -INFINITY;
+
+        if (inCheck) {
+            if (MoveGenerator.generateLegal(position, list) == 0) {
+                return -MATE + ply;
+            }
+        } else {
+            best = Evaluation.evaluate(position, pawns);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            MoveGenerator.generateCaptures(position, list);
+        }
+        ordering.score(list, ply, Move.NONE, Move.NONE);
+
+        for (int i = 0; i < list.size(); i++) {
+            int move = ordering.next(list, ply, i);
+            if (!inCheck && exchange.evaluate(position, move) < 0) {
+                continue;
+            }
+
+            played[ply] = move;
+            position.makeMove(move);
+            int value = -quiescence(ply + 1, -beta, -alpha);
+            position.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /*
+     * Swaps a move into the given index of the list, unless it already sits
+     * at or before it.
+     */
+    private static void moveTo(MoveList list, int move, int index) {
+        if (move == Move.NONE) {
+            return;
+        }
+        for (int i = index; i < list.size(); i++) {
+            if (list.get(i) == move) {
+                list.set(i, list.get(index));
+                list.set(index, move);
+                return;
+            }
+        }
+    }
+
+    /*
+     * Mate scores count plies from the root, but a table entry may be read
+     * back at another ply, so they are stored relative to the entry's own
+     * position instead.
+     */
+    private static int toTable(int value, int ply) {
+        if (value >= MATE_BOUND) {
+            return value + ply;
+        }
+        if (value <= -MATE_BOUND) {
+            return value - ply;
+        }
+        return value;
+    }
+
+    private static int fromTable(int value, int ply) {
+        if (value >= MATE_BOUND) {
+            return value - ply;
+        }
+        if (value <= -MATE_BOUND) {
+            return value + ply;
+        }
+        return value;
+    }
+
+    private void report() {
+        if (info == null) {
+            return;
+        }
+
+        String value = Math.abs(score) >= MATE_BOUND
+                ? "mate " + (score > 0 ? (MATE - score + 1) / 2 : -(MATE + score) / 2)
+                : "cp " + score;
+        info.printf("depth %d score %s nodes %d nps %d time %d hashhits %.1f%% firstcutoffs %.1f%% pawnhits %.1f%% "
+                        + "bestmove %s%n", completedDepth, value, nodes, getNodesPerSecond(), elapsedNanos / 1_000_000,
+                table.getHitRate() * 100, getFirstMoveCutoffRate() * 100, pawns.getHitRate() * 100,
+                Move.toString(bestMove));
+    }
+
+    /**
+     * Searches one position and prints the progress, for following search
+     * throughput from one version to the next. Arguments are the time budget
+     * in milliseconds, the table size in megabytes, the number of threads,
+     * then optionally a FEN record.
+     */
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        String fen = args.length > 3 ? String.join(" ", Arrays.copyOfRange(args, 3, args.length))
+                : Position.START_FEN;
+
+        ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(megabytes));
+        search.setInfo(System.out);
+        int move = search.think(Position.fromFen(fen), millis, MAX_PLY);
+        search.shutdown();
+        System.out.println("bestmove " + (move == Move.NONE ? "(none)" : Move.toString(move)));
+    }
+}
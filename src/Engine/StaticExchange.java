@@ -0,0 +1,98 @@
+package Engine;
+
+import Core.Bitboards;
+import Core.Move;
+import Core.MoveGenerator;
+import Core.Position;
+
+/**
+ * Static exchange evaluation: the material a capture wins or loses once both
+ * sides have made every profitable recapture on its target square, cheapest
+ * attacker first. Sliders lined up behind an attacker (x-rays) join in as
+ * the pieces in front of them are traded off. Pins are not considered.
+ * <p>
+ * Each instance keeps its own scratch buffer, so a search thread evaluates
+ * exchanges without allocating; instances must not be shared by threads.
+ */
+public final class StaticExchange {
+    // Indexed by Core.Position piece type; the king only ever captures last
+    private static final int[] VALUES = {100, 320, 330, 500, 900, 20000};
+
+    // No exchange on one square can be longer than every piece on the board
+    private static final int MAX_EXCHANGE = 32;
+
+    // Material balance after each capture of the sequence
+    private final int[] gain = new int[MAX_EXCHANGE];
+
+    /**
+     * @param position position the move is played from
+     * @param move     capture or promotion of the side to move
+     * @return centipawns the side to move gains by the exchange, negative if
+     * the move loses material
+     */
+    public int evaluate(Position position, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        gain[0] = 0;
+
+        long occupied = position.getOccupancy() ^ (1L << from);
+        int attacker = Position.typeOf(Move.piece(move));
+        if (Move.isCapture(move)) {
+            gain[0] = VALUES[Position.typeOf(Move.captured(move))];
+        }
+        if (Move.isEnPassant(move)) {
+            occupied ^= 1L << (to + (Position.colorOf(Move.piece(move)) == Position.WHITE ? 8 : -8));
+        }
+        if (Move.isPromotion(move)) {
+            attacker = Move.promotion(move);
+            gain[0] += VALUES[attacker] - VALUES[Position.PAWN];
+        }
+
+        long diagonal = position.getPieces(Position.BISHOP) | position.getPieces(Position.QUEEN);
+        long straight = position.getPieces(Position.ROOK) | position.getPieces(Position.QUEEN);
+        long attackers = (MoveGenerator.attackersTo(position, to, Position.WHITE, occupied)
+                | MoveGenerator.attackersTo(position, to, Position.BLACK, occupied)) & occupied;
+        int side = Position.colorOf(Move.piece(move)) ^ 1;
+        int depth = 0;
+
+        while (depth < MAX_EXCHANGE - 1) {
+            long own = attackers & position.getOccupancy(side);
+            if (own == 0) {
+                break;
+            }
+
+            int type = Position.PAWN;
+            long candidates = own & position.getPieces(type);
+            while (candidates == 0) {
+                candidates = own & position.getPieces(++type);
+            }
+
+            // A king may not capture into a square the other side still
+            // defends
+            if (type == Position.KING && (attackers & position.getOccupancy(side ^ 1)) != 0) {
+                break;
+            }
+
+            // Once the side to move is behind whether it captures or not,
+            // the rest of the sequence cannot change the result
+            gain[depth + 1] = VALUES[attacker] - gain[depth];
+            if (Math.max(-gain[depth], gain[depth + 1]) < 0) {
+                break;
+            }
+            depth++;
+
+            occupied ^= Long.lowestOneBit(candidates);
+            attackers |= (Bitboards.bishopAttacks(to, occupied) & diagonal)
+                    | (Bitboards.rookAttacks(to, occupied) & straight);
+            attackers &= occupied;
+            attacker = type;
+            side ^= 1;
+        }
+
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+}
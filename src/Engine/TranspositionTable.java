@@ -0,0 +1,197 @@
+package Engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hash table of search results keyed by {@link Core.Position#getKey()},
+ * shared by any number of search threads without locks.
+ * <p>
+ * Entries live in a direct buffer outside the Java heap, so a large table
+ * adds nothing to the heap or to garbage collection. Each entry is two
+ * longs: the packed data, and the key XORed with that data. A reader
+ * accepts an entry only if XORing the two gives back its key, so an entry
+ * torn by two threads writing at once simply reads as a miss.
+ * <p>
+ * Entries are grouped in buckets of four, one cache line; the buffer is
+ * aligned so no bucket straddles two lines. A store replaces the entry for
+ * the same key if there is one, and otherwise the entry that is shallowest
+ * once entries from earlier searches are aged down.
+ */
+public final class TranspositionTable {
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    // Returned by probe when there is no entry; real entries have a bound
+    public static final long MISS = 0L;
+
+    public static final int MAX_MEGABYTES = 1024;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int CACHE_LINE_BYTES = 64;
+
+    // Depth an entry loses for each search it is older than the current one
+    private static final int AGE_PENALTY = 8;
+    private static final int AGE_MASK = 63;
+
+    private final ByteBuffer entries;
+    private final long bucketMask;
+    private volatile int age;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * @param megabytes size of the table, rounded down to a power of two
+     * @throws IllegalArgumentException if the size is not between 1 and
+     *                                  {@link #MAX_MEGABYTES}
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Table size must be 1 to " + MAX_MEGABYTES + " MB: " + megabytes);
+        }
+
+        int bytes = Integer.highestOneBit(megabytes) << 20;
+        entries = ByteBuffer.allocateDirect(bytes + CACHE_LINE_BYTES).alignedSlice(CACHE_LINE_BYTES)
+                .order(ByteOrder.nativeOrder());
+        bucketMask = bytes / BUCKET_BYTES - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier ones are
+     * replaced first, and starts the statistics over so they describe this
+     * search alone.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+        resetStatistics();
+    }
+
+    /**
+     * Empties the table and its statistics.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.capacity(); i += 8) {
+            entries.putLong(i, 0L);
+        }
+        resetStatistics();
+    }
+
+    /**
+     * @param key position key
+     * @return packed entry for the key, or {@link #MISS}
+     */
+    public long probe(long key) {
+        probes.increment();
+        int bucket = bucket(key);
+
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = bucket + i * ENTRY_BYTES;
+            long data = entries.getLong(offset + 8);
+            if ((entries.getLong(offset) ^ data) == key && data != MISS) {
+                hits.increment();
+                return data;
+            }
+        }
+
+        return MISS;
+    }
+
+    /**
+     * @param key   position key
+     * @param move  best move found, or {@link Core.Move#NONE}
+     * @param score score as the search should read it back
+     * @param depth remaining depth the score was searched to
+     * @param bound {@link #UPPER}, {@link #LOWER} or {@link #EXACT}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int bucket = bucket(key);
+        int current = age;
+        int replace = bucket;
+        int lowest = Integer.MAX_VALUE;
+
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = bucket + i * ENTRY_BYTES;
+            long data = entries.getLong(offset + 8);
+
+            if ((entries.getLong(offset) ^ data) == key || data == MISS) {
+                // Keep the old move if this result found none
+                if (move == 0 && data != MISS) {
+                    move = move(data);
+                }
+                replace = offset;
+                break;
+            }
+
+            int worth = depth(data) - AGE_PENALTY * ((current - age(data)) & AGE_MASK);
+            if (worth < lowest) {
+                lowest = worth;
+                replace = offset;
+            }
+        }
+
+        long data = (move & 0xFFFFFFFFL)
+                | (long) (score & 0xFFFF) << 32
+                | (long) (Math.max(0, Math.min(depth, 255))) << 48
+                | (long) bound << 56
+                | (long) current << 58;
+        entries.putLong(replace, key ^ data);
+        entries.putLong(replace + 8, data);
+    }
+
+    public static int move(long entry) {
+        return (int) entry;
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 32);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 48) & 255;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 56) & 3;
+    }
+
+    private static int age(long entry) {
+        return (int) (entry >>> 58) & AGE_MASK;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return share of probes that found an entry since the last reset, 0 to 1
+     */
+    public double getHitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0 : hits.sum() / (double) p;
+    }
+
+    public void resetStatistics() {
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * @return table size in bytes
+     */
+    public int getSize() {
+        return entries.capacity();
+    }
+
+    private int bucket(long key) {
+        return (int) (key & bucketMask) * BUCKET_BYTES;
+    }
+}
@@ -26,6 +26,10 @@ public class Clock {
         } else this.ss--;
     }
     
+    public int getSeconds() {
+        return hh * 3600 + mm * 60 + ss;
+    }
+
     public String getTime() {
         String fHrs = String.format("%02d", this.hh);
         String fMins = String.format("%02d", this.mm);
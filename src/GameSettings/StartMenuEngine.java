@@ -1,13 +1,13 @@
 package GameSettings;
 
 import Management.GameWindow;
+import Management.Sprites;
 
 import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Image;
 import java.util.Objects;
 
-import javax.imageio.ImageIO;
 import javax.swing.Box;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
@@ -19,6 +19,8 @@ import javax.swing.JPanel;
 import javax.swing.JTextField;
 
 public class StartMenuEngine implements Runnable {
+    // Choices for who plays each color; the engine is the second
+    private static final String[] PLAYERS = {"Human", "Computer"};
 
     public void run() {
 
@@ -26,7 +28,7 @@ public class StartMenuEngine implements Runnable {
         // Set window properties
         startWindow.setLocation(300, 100);
         startWindow.setResizable(false);
-        startWindow.setSize(260, 240);
+        startWindow.setSize(360, 240);
 
         Box components = Box.createVerticalBox();
         startWindow.add(components);
@@ -41,35 +43,35 @@ public class StartMenuEngine implements Runnable {
         final JPanel blackPanel = new JPanel();
         components.add(blackPanel, BorderLayout.EAST);
         final JLabel blackPiece = new JLabel();
-        try {
-            Image blackImg = ImageIO.read(getClass().getResource("bp.png"));
+        Image blackImg = Sprites.get("bp.png");
+        if (blackImg != null) {
             blackPiece.setIcon(new ImageIcon(blackImg));
             blackPanel.add(blackPiece);
-        } catch (Exception e) {
-            System.out.println("Required game file bp.png missing");
         }
 
 
         final JTextField blackInput = new JTextField("Black", 10);
         blackPanel.add(blackInput);
+        final JComboBox<String> blackPlayer = new JComboBox<>(PLAYERS);
+        blackPanel.add(blackPlayer);
 
         // White player selections
         final JPanel whitePanel = new JPanel();
         components.add(whitePanel);
         final JLabel whitePiece = new JLabel();
 
-        try {
-            Image whiteImg = ImageIO.read(getClass().getResource("wp.png"));
+        Image whiteImg = Sprites.get("wp.png");
+        if (whiteImg != null) {
             whitePiece.setIcon(new ImageIcon(whiteImg));
             whitePanel.add(whitePiece);
             startWindow.setIconImage(whiteImg);
-        } catch (Exception e) {
-            System.out.println("Required game file wp.png missing");
         }
 
 
         final JTextField whiteInput = new JTextField("White", 10);
         whitePanel.add(whiteInput);
+        final JComboBox<String> whitePlayer = new JComboBox<>(PLAYERS);
+        whitePanel.add(whitePlayer);
 
         // Timer settings
         final String[] minSecInts = new String[60];
@@ -113,7 +115,8 @@ public class StartMenuEngine implements Runnable {
                 "To begin a new game, input player names\n" +
                         "next to the pieces. Set the clocks and\n" +
                         "click \"Start\". Setting the timer to all\n" +
-                        "zeroes begins a new untimed game.",
+                        "zeroes begins a new untimed game. Choose\n" +
+                        "\"Computer\" to let the engine play a color.",
                 "How to play",
                 JOptionPane.PLAIN_MESSAGE));
 
@@ -126,7 +129,10 @@ public class StartMenuEngine implements Runnable {
             int mm = Integer.parseInt((String) Objects.requireNonNull(minutes.getSelectedItem()));
             int ss = Integer.parseInt((String) Objects.requireNonNull(seconds.getSelectedItem()));
 
-            new GameWindow(bn, wn, hh, mm, ss);
+            boolean be = blackPlayer.getSelectedIndex() == 1;
+            boolean we = whitePlayer.getSelectedIndex() == 1;
+
+            new GameWindow(bn, wn, hh, mm, ss, be, we);
             startWindow.dispose();
         });
 
@@ -1,36 +1,78 @@
 package Management;
 
+import Core.Bitboards;
+import Core.Move;
+import Core.MoveGenerator;
+import Core.Position;
+import Engine.ParallelSearch;
+import Engine.Search;
+import Engine.TranspositionTable;
 import Pieces.*;
 
+import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.DisplayMode;
 import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
 import java.awt.GridLayout;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.*;
 
 @SuppressWarnings("serial")
 public class Board extends JPanel implements MouseListener, MouseMotionListener {
 
-    public List<Square> movable;
+    // Bitmask of the squares each piece of the side to move may move to, by
+    // the index of its square; worked out once per turn
+    private long[] legalTargets = new long[64];
+    // Targets of the piece being dragged, highlighted on the board
+    private long highlighted;
     // List of pieces and whether they are movable
     public final LinkedList<Piece> blackPieces;
     public final LinkedList<Piece> whitePieces;
 
-    private boolean whiteTurn;
     private Piece currentPiece;
     private int currentX;
     private int currentY;
-
-    private CheckmateDetector checkmateDetector;
+    // Where the dragged piece was last painted, and the timer that paints
+    // it at its new place at most once per display refresh
+    private int paintedX;
+    private int paintedY;
+    private final Timer dragTimer;
+    // A dropped move waiting for its Ruling, shown where it was dropped
+    // until the move is confirmed or taken back
+    private Piece droppedPiece;
+    private Square droppedOn;
+
+
+    // Which colors the engine plays, and whether it is thinking now
+    private final boolean[] engineControlled = new boolean[2];
+    private boolean engineThinking;
+    // Kept from move to move, with its table, so the engine reuses its
+    // helper threads and what it found before
+    private ParallelSearch engine;
+    private TranspositionTable engineTable;
+    private boolean gameOver;
+
+    // The empty checkerboard, rendered once per size; a VolatileImage
+    // where the display supports one
+    private Image background;
 
     // Logical and graphical representations of board
+    private final Position position;
     private final Square[][] board;
     private final GameWindow gameWindow;
 
@@ -48,8 +90,41 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
     private static final String RESOURCES_WHITE_PAWN_PNG = "wpawn.png";
     private static final String RESOURCES_BLACK_PAWN_PNG = "bpawn.png";
 
+    // Engine thinking time per move when no game window sets one
+    private static final long ENGINE_MILLIS = 2000;
+    private static final int ENGINE_TABLE_MEGABYTES = 64;
+    // Search threads, one per processor unless set with -Dchess.engine.threads=N
+    private static final int ENGINE_THREADS = Math.max(1, Integer.getInteger("chess.engine.threads",
+            Runtime.getRuntime().availableProcessors()));
+
+    // Laid over the squares the dragged piece may move to
+    private static final Color HIGHLIGHT = new Color(90, 160, 60, 140);
+
+    // Assumed when the display does not tell its refresh rate
+    private static final int DEFAULT_REFRESH_RATE = 60;
+
+    // Image of each piece type, indexed by color and then Core.Position type
+    private static final String[][] PIECE_IMAGES = {
+            {RESOURCES_BLACK_PAWN_PNG, RESOURCES_BLACK_KNIGHT_PNG, RESOURCES_BLACK_BISHOP_PNG,
+                    RESOURCES_BLACK_ROOK_PNG, RESOURCES_BLACK_QUEEN_PNG, RESOURCES_BLACK_KING_PNG},
+            {RESOURCES_WHITE_PAWN_PNG, RESOURCES_WHITE_KNIGHT_PNG, RESOURCES_WHITE_BISHOP_PNG,
+                    RESOURCES_WHITE_ROOK_PNG, RESOURCES_WHITE_QUEEN_PNG, RESOURCES_WHITE_KING_PNG}
+    };
+
     public Board(GameWindow gameWindow) {
+        this(gameWindow, Position.START_FEN);
+    }
+
+    /**
+     * Constructs a board set up from a FEN record instead of the initial
+     * position.
+     *
+     * @param gameWindow window hosting the board
+     * @param fen        position to set up
+     */
+    public Board(GameWindow gameWindow, String fen) {
         this.gameWindow = gameWindow;
+        position = Position.fromFen(fen);
         board = new Square[8][8];
         blackPieces = new LinkedList<>();
         whitePieces = new LinkedList<>();
@@ -57,6 +132,8 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
 
         this.addMouseListener(this);
         this.addMouseMotionListener(this);
+        dragTimer = new Timer(1000 / refreshRate(), e -> paintDrag());
+        dragTimer.setRepeats(false);
 
         for (int x = 0; x < 8; x++) {
             for (int y = 0; y < 8; y++) {
@@ -73,12 +150,12 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
         }
 
         initializePieces();
+        MoveGenerator.generateLegal(position, position.getSideToMove(), legalTargets);
 
         this.setPreferredSize(new Dimension(400, 400));
         this.setMaximumSize(new Dimension(400, 400));
         this.setMinimumSize(this.getPreferredSize());
         this.setSize(new Dimension(400, 400));
-        whiteTurn = true;
 
     }
 
@@ -86,8 +163,12 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
         return this.board;
     }
 
+    public Position getPosition() {
+        return this.position;
+    }
+
     public boolean getTurn() {
-        return whiteTurn;
+        return position.getSideToMove() == Position.WHITE;
     }
 
     public Piece getCurrentPiece() {
@@ -100,14 +181,23 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
 
     @Override
     public void paintComponent(Graphics graphics) {
-//         super.paintComponent(g);
-
+        boolean whiteTurn = getTurn();
+
+        paintBackground(graphics);
+        graphics.setColor(HIGHLIGHT);
+        for (long targets = highlighted; targets != 0; targets &= targets - 1) {
+            int sq = Long.numberOfTrailingZeros(targets);
+            Square square = board[sq >> 3][sq & 7];
+            graphics.fillRect(square.getX(), square.getY(), square.getWidth(), square.getHeight());
+        }
         for (int x = 0; x < 8; x++) {
             for (int y = 0; y < 8; y++) {
-                Square square = board[y][x];
-                square.paintComponent(graphics);
+                board[y][x].paintPiece(graphics);
             }
         }
+        if (droppedPiece != null) {
+            graphics.drawImage(droppedPiece.getImage(), droppedOn.getX(), droppedOn.getY(), null);
+        }
 
         if (currentPiece != null) {
             if ((currentPiece.getCOLOR() == 1 && whiteTurn)
@@ -118,13 +208,120 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
         }
     }
 
+    /**
+     * Paints the board itself and nothing else. The squares stay children
+     * only for layout and for finding the square under the mouse, and
+     * {@link #paintComponent} already draws them; letting Swing paint them
+     * would create a Graphics for each of the 64, and for the board, on
+     * every frame.
+     */
+    @Override
+    public void paint(Graphics graphics) {
+        paintComponent(graphics);
+    }
+
+    /*
+     * Copies the cached checkerboard onto the graphics, rendering it again
+     * only when the board was resized or the display dropped its contents.
+     */
+    private void paintBackground(Graphics graphics) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        while (true) {
+            if (background == null || background.getWidth(null) != width || background.getHeight(null) != height) {
+                background = createBackground(width, height);
+            }
+            if (!(background instanceof VolatileImage)) {
+                graphics.drawImage(background, 0, 0, null);
+                return;
+            }
+
+            VolatileImage image = (VolatileImage) background;
+            int state = image.validate(getGraphicsConfiguration());
+            if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+                background = null;
+                continue;
+            }
+            if (state == VolatileImage.IMAGE_RESTORED) {
+                renderBackground(image);
+            }
+            graphics.drawImage(image, 0, 0, null);
+            if (!image.contentsLost()) {
+                return;
+            }
+        }
+    }
+
+    private Image createBackground(int width, int height) {
+        // Null when headless or not yet on screen
+        Image image = createVolatileImage(width, height);
+        if (image == null) {
+            GraphicsConfiguration configuration = getGraphicsConfiguration();
+            image = configuration != null ? configuration.createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        renderBackground(image);
+        return image;
+    }
+
+    private void renderBackground(Image image) {
+        Graphics graphics = image.getGraphics();
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                board[y][x].paintBackground(graphics);
+            }
+        }
+        graphics.dispose();
+    }
+
+    /**
+     * Hands a color to the engine, or back to the mouse. If it is that color's
+     * turn the engine starts thinking right away.
+     *
+     * @param color color in question
+     * @param engine true to let the engine play it
+     */
+    public void setEngineControlled(int color, boolean engine) {
+        engineControlled[color] = engine;
+        startEngine();
+    }
+
+    public boolean isEngineControlled(int color) {
+        return engineControlled[color];
+    }
+
+    /**
+     * Stops the engine for good, for when the game is closed.
+     */
+    public void stopEngine() {
+        gameOver = true;
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
     @Override
     public void mousePressed(MouseEvent e) {
+        if (engineControlled[position.getSideToMove()] || droppedPiece != null) {
+            return;
+        }
+
+        boolean whiteTurn = getTurn();
         currentX = e.getX();
         currentY = e.getY();
+        paintedX = currentX;
+        paintedY = currentY;
 
-        Square square = (Square) this.getComponentAt(new Point(e.getX(), e.getY()));
+        Component component = this.getComponentAt(new Point(e.getX(), e.getY()));
+        if (!(component instanceof Square)) {
+            return;
+        }
 
+        Square square = (Square) component;
         if (square.isOccupied()) {
             currentPiece = square.getOccupyingPiece();
             if (currentPiece.getCOLOR() == 0 && whiteTurn)
@@ -132,13 +329,15 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
             if (currentPiece.getCOLOR() == 1 && !whiteTurn)
                 return;
             square.setDisplay(false);
+            highlighted = legalTargets[square.getIndex()];
         }
         repaint();
     }
 
     @Override
     public void mouseReleased(MouseEvent e) {
-        Square square = (Square) this.getComponentAt(new Point(e.getX(), e.getY()));
+        Component component = this.getComponentAt(new Point(e.getX(), e.getY()));
+        boolean whiteTurn = getTurn();
 
         if (currentPiece != null) {
             if (currentPiece.getCOLOR() == 0 && whiteTurn)
@@ -146,37 +345,14 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
             if (currentPiece.getCOLOR() == 1 && !whiteTurn)
                 return;
 
-            List<Square> legalMoves = currentPiece.getLegalMoves(this);
-            movable = checkmateDetector.getAllowableSquares(whiteTurn);
-
-            if (legalMoves.contains(square) && movable.contains(square)
-                    && checkmateDetector.testMove(currentPiece, square)) {
-                square.setDisplay(true);
-                currentPiece.move(square);
-                checkmateDetector.update();
-
-                if (checkmateDetector.blackCheckMated()) {
-                    currentPiece = null;
-                    repaint();
-                    this.removeMouseListener(this);
-                    this.removeMouseMotionListener(this);
-                    gameWindow.checkmateOccurred(0);
-                } else if (checkmateDetector.whiteCheckMated()) {
-                    currentPiece = null;
-                    repaint();
-                    this.removeMouseListener(this);
-                    this.removeMouseMotionListener(this);
-                    gameWindow.checkmateOccurred(1);
-                } else {
-                    currentPiece = null;
-                    whiteTurn = !whiteTurn;
-                    movable = checkmateDetector.getAllowableSquares(whiteTurn);
-                }
-
+            Square origin = currentPiece.getPosition();
+            if (component instanceof Square && Bitboards.contains(highlighted, ((Square) component).getIndex())) {
+                drop(currentPiece, (Square) component);
             } else {
-                currentPiece.getPosition().setDisplay(true);
-                currentPiece = null;
+                origin.setDisplay(true);
             }
+            currentPiece = null;
+            highlighted = 0;
         }
 
         repaint();
@@ -187,7 +363,37 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
         currentX = e.getX() - 24;
         currentY = e.getY() - 24;
 
-        repaint();
+        if (currentPiece != null && !dragTimer.isRunning()) {
+            dragTimer.start();
+        }
+    }
+
+    /*
+     * Repaints only where the dragged piece was and where it is now, once
+     * for all the motion events since the last frame.
+     */
+    private void paintDrag() {
+        Image image = currentPiece == null ? null : currentPiece.getImage();
+        if (image == null) {
+            return;
+        }
+
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        int left = Math.min(paintedX, currentX);
+        int top = Math.min(paintedY, currentY);
+        repaint(left, top, Math.max(paintedX, currentX) + width - left, Math.max(paintedY, currentY) + height - top);
+        paintedX = currentX;
+        paintedY = currentY;
+    }
+
+    private static int refreshRate() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_REFRESH_RATE;
+        }
+        int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDisplayMode().getRefreshRate();
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_RATE : rate;
     }
 
     // Irrelevant methods, do nothing for these mouse behaviors
@@ -209,60 +415,223 @@ public class Board extends JPanel implements MouseListener, MouseMotionListener
 
 
     private void initializePieces() {
+        for (int sq = 0; sq < 64; sq++) {
+            int code = position.pieceAt(sq);
+            if (code == Position.EMPTY) {
+                continue;
+            }
 
-        putPawns();
-        putRooks();
-        putKnights();
-        putBishops();
-
-        board[7][3].put(new Queen(1, board[7][3], RESOURCES_WHITE_QUEEN_PNG));
-        board[0][3].put(new Queen(0, board[0][3], RESOURCES_BLACK_QUEEN_PNG));
+            Square square = board[sq >> 3][sq & 7];
+            Piece piece = createPiece(code, square);
+            square.setPiece(piece);
+            pieces(piece.getCOLOR()).add(piece);
+        }
+    }
 
-        King blackKing = new King(0, board[0][4], RESOURCES_BLACK_KING_PNG);
-        King whiteKing = new King(1, board[7][4], RESOURCES_WHITE_KING_PNG);
-        board[0][4].put(blackKing);
-        board[7][4].put(whiteKing);
+    /*
+     * Shows a dropped piece on its target square right away, and has the
+     * game after the move judged on a worker thread. The move was already
+     * checked against the legal move table, so it is played when the
+     * ruling comes back; if the worker fails the piece goes back where it
+     * was.
+     */
+    private void drop(Piece piece, Square target) {
+        final Square origin = piece.getPosition();
+        final Position copy = new Position(position);
+        droppedPiece = piece;
+        droppedOn = target;
+        target.setDisplay(false);
+
+        new SwingWorker<Ruling, Void>() {
+            @Override
+            protected Ruling doInBackground() {
+                return Ruling.of(copy, origin.getIndex(), target.getIndex());
+            }
 
-        setOccupyingPieces();
+            @Override
+            protected void done() {
+                droppedPiece = null;
+                droppedOn = null;
+                origin.setDisplay(true);
+                target.setDisplay(true);
+                repaint();
+
+                Ruling ruling;
+                try {
+                    ruling = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    return;
+                }
+                if (gameOver) {
+                    return;
+                }
 
-        checkmateDetector = new CheckmateDetector(this, whitePieces, blackPieces, whiteKing, blackKing);
+                position.makeMove(ruling.move);
+                moveMade(ruling);
+            }
+        }.execute();
     }
 
-    private void setOccupyingPieces() {
-        for (int y = 0; y < 2; y++) {
-            for (int x = 0; x < 8; x++) {
-                blackPieces.add(board[y][x].getOccupyingPiece());
-                whitePieces.add(board[7 - y][x].getOccupyingPiece());
-            }
+    /*
+     * Brings the view in line with a move just made on the position, ends the
+     * game on mate or stalemate and otherwise lets the engine reply if it
+     * plays the side now to move.
+     */
+    private void moveMade(Ruling ruling) {
+        syncPieces();
+
+        if (ruling.mated == Position.BLACK) {
+            endGame();
+            gameWindow.checkmateOccurred(0);
+        } else if (ruling.mated == Position.WHITE) {
+            endGame();
+            gameWindow.checkmateOccurred(1);
+        } else if (ruling.stalemate) {
+            endGame();
+            gameWindow.stalemateOccurred();
+        } else {
+            legalTargets = ruling.legalTargets;
+            startEngine();
         }
     }
 
-    private void putPawns() {
-        for (int x = 0; x < 8; x++) {
-            board[1][x].put(new Pawn(0, board[1][x], RESOURCES_BLACK_PAWN_PNG));
-            board[6][x].put(new Pawn(1, board[6][x], RESOURCES_WHITE_PAWN_PNG));
+    /*
+     * Searches on a worker thread, on a copy of the position, and plays the
+     * result back on the event dispatch thread.
+     */
+    private void startEngine() {
+        int color = position.getSideToMove();
+        if (gameOver || engineThinking || !engineControlled[color]) {
+            return;
+        }
+
+        if (engine == null) {
+            engineTable = new TranspositionTable(ENGINE_TABLE_MEGABYTES);
+            engine = new ParallelSearch(ENGINE_THREADS, engineTable);
+            engine.setInfo(System.out);
         }
+        engineTable.newSearch();
+
+        final ParallelSearch search = engine;
+        final Position root = new Position(position);
+        final long millis = gameWindow == null ? ENGINE_MILLIS : gameWindow.getThinkingTime(color);
+        engineThinking = true;
+
+        new SwingWorker<Ruling, Void>() {
+            @Override
+            protected Ruling doInBackground() {
+                int move = search.think(root, millis, Search.MAX_PLY);
+                return move == Move.NONE ? null : Ruling.of(root, move);
+            }
+
+            @Override
+            protected void done() {
+                engineThinking = false;
+                Ruling ruling;
+                try {
+                    ruling = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    if (!gameOver) {
+                        e.printStackTrace();
+                    }
+                    return;
+                }
+                if (gameOver || ruling == null) {
+                    return;
+                }
+
+                position.makeMove(ruling.move);
+                moveMade(ruling);
+                repaint();
+            }
+        }.execute();
     }
 
-    private void putBishops() {
-        board[0][2].put(new Bishop(0, board[0][2], RESOURCES_BLACK_BISHOP_PNG));
-        board[0][5].put(new Bishop(0, board[0][5], RESOURCES_BLACK_BISHOP_PNG));
-        board[7][2].put(new Bishop(1, board[7][2], RESOURCES_WHITE_BISHOP_PNG));
-        board[7][5].put(new Bishop(1, board[7][5], RESOURCES_WHITE_BISHOP_PNG));
+    private void endGame() {
+        gameOver = true;
+        repaint();
+        this.removeMouseListener(this);
+        this.removeMouseMotionListener(this);
     }
 
-    private void putKnights() {
-        board[0][1].put(new Knight(0, board[0][1], RESOURCES_BLACK_KNIGHT_PNG));
-        board[0][6].put(new Knight(0, board[0][6], RESOURCES_BLACK_KNIGHT_PNG));
-        board[7][1].put(new Knight(1, board[7][1], RESOURCES_WHITE_KNIGHT_PNG));
-        board[7][6].put(new Knight(1, board[7][6], RESOURCES_WHITE_KNIGHT_PNG));
+    private List<Piece> pieces(int color) {
+        return color == Position.WHITE ? whitePieces : blackPieces;
     }
 
-    private void putRooks() {
-        board[0][0].put(new Rook(0, board[0][0], RESOURCES_BLACK_ROOK_PNG));
-        board[0][7].put(new Rook(0, board[0][7], RESOURCES_BLACK_ROOK_PNG));
-        board[7][0].put(new Rook(1, board[7][0], RESOURCES_WHITE_ROOK_PNG));
-        board[7][7].put(new Rook(1, board[7][7], RESOURCES_WHITE_ROOK_PNG));
+    /*
+     * Brings the squares and piece lists in line with the position after a
+     * move. Pieces that left a square are reused where a piece of the same
+     * kind arrived, so a moved piece keeps its object; the rest were
+     * captured, and arrivals without a match are promotions.
+     */
+    private void syncPieces() {
+        List<Piece> lifted = new ArrayList<>(4);
+        long changed = 0;
+
+        for (int sq = 0; sq < 64; sq++) {
+            Square square = board[sq >> 3][sq & 7];
+            Piece piece = square.getOccupyingPiece();
+            int code = piece == null ? Position.EMPTY : piece.getCode();
+
+            if (code != position.pieceAt(sq)) {
+                changed |= 1L << sq;
+                if (piece != null) {
+                    lifted.add(piece);
+                    square.setPiece(null);
+                }
+            }
+        }
+
+        while (changed != 0) {
+            int sq = Long.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+
+            int code = position.pieceAt(sq);
+            if (code == Position.EMPTY) {
+                continue;
+            }
+
+            Square square = board[sq >> 3][sq & 7];
+            Piece piece = null;
+            for (Iterator<Piece> it = lifted.iterator(); it.hasNext(); ) {
+                Piece candidate = it.next();
+                if (candidate.getCode() == code) {
+                    piece = candidate;
+                    it.remove();
+                    break;
+                }
+            }
+            if (piece == null) {
+                piece = createPiece(code, square);
+                pieces(piece.getCOLOR()).add(piece);
+            }
+            square.setPiece(piece);
+        }
+
+        for (Piece piece : lifted) {
+            pieces(piece.getCOLOR()).remove(piece);
+        }
+    }
+
+    private static Piece createPiece(int code, Square square) {
+        int color = Position.colorOf(code);
+        String image = PIECE_IMAGES[color][Position.typeOf(code)];
+
+        switch (Position.typeOf(code)) {
+            case Position.PAWN:
+                return new Pawn(color, square, image);
+            case Position.KNIGHT:
+                return new Knight(color, square, image);
+            case Position.BISHOP:
+                return new Bishop(color, square, image);
+            case Position.ROOK:
+                return new Rook(color, square, image);
+            case Position.QUEEN:
+                return new Queen(color, square, image);
+            default:
+                return new King(color, square, image);
+        }
     }
 
-}
\ No newline at end of file
+}
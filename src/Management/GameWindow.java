@@ -6,8 +6,9 @@ import GameSettings.StartMenuEngine;
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
 import java.awt.Image;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 
 
@@ -19,7 +20,26 @@ public class GameWindow {
     private Timer timer;
     private JFrame gameWindow;
 
+    // Engine thinking time per move in untimed games, and the share of the
+    // remaining clock it may spend otherwise
+    private static final long UNTIMED_THINKING_MILLIS = 2000;
+    private static final int CLOCK_SHARE = 30;
+
+    private final boolean timed;
+
     public GameWindow(String blackName, String whiteName, int hh, int mm, int ss) {
+        this(blackName, whiteName, hh, mm, ss, false, false);
+    }
+
+    /**
+     * Opens a game in which either color may be played by the engine.
+     *
+     * @param blackEngine true if the engine plays black
+     * @param whiteEngine true if the engine plays white
+     */
+    public GameWindow(String blackName, String whiteName, int hh, int mm, int ss,
+                      boolean blackEngine, boolean whiteEngine) {
+        timed = !(hh == 0 && mm == 0 && ss == 0);
 
         blackClock = new Clock(hh, ss, mm);
         whiteClock = new Clock(hh, ss, mm);
@@ -27,11 +47,9 @@ public class GameWindow {
         gameWindow = new JFrame("Chess");
 
 
-        try {
-            Image whiteImg = ImageIO.read(getClass().getResource("wp.png"));
+        Image whiteImg = Sprites.get("wp.png");
+        if (whiteImg != null) {
             gameWindow.setIconImage(whiteImg);
-        } catch (Exception e) {
-            System.out.println("Game file wp.png not found");
         }
 
         gameWindow.setLocation(100, 100);
@@ -52,6 +70,27 @@ public class GameWindow {
         gameWindow.pack();
         gameWindow.setVisible(true);
         gameWindow.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        gameWindow.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                board.stopEngine();
+            }
+        });
+
+        board.setEngineControlled(0, blackEngine);
+        board.setEngineControlled(1, whiteEngine);
+    }
+
+    /**
+     * @param color side the engine is about to move for
+     * @return milliseconds the engine may spend on the move
+     */
+    public long getThinkingTime(int color) {
+        if (!timed) {
+            return UNTIMED_THINKING_MILLIS;
+        }
+        Clock clock = color == 1 ? whiteClock : blackClock;
+        return Math.max(100, clock.getSeconds() * 1000L / CLOCK_SHARE);
     }
 
     public void checkmateOccurred(int c) {
@@ -76,6 +115,20 @@ public class GameWindow {
         }
     }
 
+    public void stalemateOccurred() {
+        if (timer != null) timer.stop();
+        int n = JOptionPane.showConfirmDialog(
+                gameWindow, "Draw by stalemate! Set up a new game? \n" +
+                        "Choosing \"No\" lets you look at the final situation.",
+                "Stalemate!",
+                JOptionPane.YES_NO_OPTION);
+
+        if (n == JOptionPane.YES_OPTION) {
+            SwingUtilities.invokeLater(new StartMenuEngine());
+            gameWindow.dispose();
+        }
+    }
+
 // Helper function to create data panel
 
     private JPanel gameDataPanel(final String blackName, final String whiteName, final int hh, final int mm, final int ss) {
@@ -151,7 +204,8 @@ public class GameWindow {
                     JOptionPane.YES_NO_OPTION);
 
             if (answer == JOptionPane.YES_OPTION) {
-                new GameWindow(blackName, whiteName, hh, mm, ss);
+                new GameWindow(blackName, whiteName, hh, mm, ss,
+                        board.isEngineControlled(0), board.isEngineControlled(1));
             }
             gameWindow.dispose();
         }
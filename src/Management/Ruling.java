@@ -0,0 +1,60 @@
+package Management;
+
+import Core.MoveGenerator;
+import Core.Position;
+
+/**
+ * What the rules say about the game after a legal move: whether the move
+ * mates or stalemates, and every legal move of the side to move next.
+ * Worked out on a copy of the position, so the {@link Board} can have it
+ * judged off the event dispatch thread and only apply the result there.
+ */
+final class Ruling {
+    static final int NO_COLOR = -1;
+
+    // Packed Core.Move to play
+    final int move;
+    // Color checkmated by the move, or NO_COLOR
+    final int mated;
+    final boolean stalemate;
+    // Bitmask of the squares each piece of the side to move next may move
+    // to, by the index of its square
+    final long[] legalTargets;
+
+    private Ruling(int move, int mated, boolean stalemate, long[] legalTargets) {
+        this.move = move;
+        this.mated = mated;
+        this.stalemate = stalemate;
+        this.legalTargets = legalTargets;
+    }
+
+    /**
+     * Judges a move given by its squares, promoting pawns to queens.
+     *
+     * @param position copy of the game's position; the move is played on it
+     * @param from     index of the square moved from
+     * @param to       index of the square moved to, already checked against
+     *                 the legal targets of the piece
+     */
+    static Ruling of(Position position, int from, int to) {
+        return of(position, MoveGenerator.move(position, from, to));
+    }
+
+    /**
+     * Judges a move known to be legal, such as one the engine chose.
+     *
+     * @param position copy of the game's position; the move is played on it
+     * @param move     packed Core.Move
+     */
+    static Ruling of(Position position, int move) {
+        position.makeMove(move);
+
+        int color = position.getSideToMove();
+        long[] targets = new long[64];
+        boolean canMove = MoveGenerator.generateLegal(position, color, targets) > 0;
+        boolean inCheck = MoveGenerator.isSquareAttacked(position, position.getKingSquare(color), color ^ 1);
+
+        int mated = !canMove && inCheck ? color : NO_COLOR;
+        return new Ruling(move, mated, !canMove && !inCheck, targets);
+    }
+}
@@ -0,0 +1,77 @@
+package Management;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Images of the game, each decoded once per process and shared by every
+ * piece, board and window that shows it. Decoded images are converted to
+ * the display's own pixel format, so drawing them is a plain copy.
+ */
+public final class Sprites {
+    private static final Map<String, BufferedImage> IMAGES = new ConcurrentHashMap<>();
+
+    // Stands in the map for an image that could not be read, so a missing
+    // file is reported and looked for only once
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    private Sprites() {
+    }
+
+    /**
+     * @param name file name of the image, next to this class or at the root
+     *             of the class path
+     * @return the decoded image, or null if it cannot be read
+     */
+    public static BufferedImage get(String name) {
+        BufferedImage image = IMAGES.computeIfAbsent(name, Sprites::read);
+        return image == MISSING ? null : image;
+    }
+
+    private static BufferedImage read(String name) {
+        URL url = Sprites.class.getResource(name);
+        if (url == null) {
+            url = Sprites.class.getResource("/" + name);
+        }
+
+        try {
+            if (url != null) {
+                BufferedImage image = ImageIO.read(url);
+                if (image != null) {
+                    return compatible(image);
+                }
+            }
+        } catch (IOException e) {
+            // Reported below like a missing file
+        }
+
+        System.out.println("File not found: " + name);
+        return MISSING;
+    }
+
+    /*
+     * PNGs often decode to a custom pixel layout, which Java2D draws through
+     * a slow general path that allocates on every call.
+     */
+    private static BufferedImage compatible(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage copy = GraphicsEnvironment.isHeadless()
+                ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE)
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+
+        Graphics2D graphics = copy.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return copy;
+    }
+}
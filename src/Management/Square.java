@@ -9,6 +9,8 @@ import javax.swing.*;
 
 @SuppressWarnings("serial")
 public class Square extends JComponent {
+    private static final Color LIGHT = new Color(221, 192, 127);
+    private static final Color DARK = new Color(101, 67, 33);
 
     private Board board;
     private Piece occupyingPiece;
@@ -36,7 +38,7 @@ public class Square extends JComponent {
     }
 
     public boolean isOccupied() {
-        return (this.occupyingPiece != null);
+        return !board.getPosition().isEmpty(getIndex());
     }
 
     public int getXCoordinate() {
@@ -47,6 +49,13 @@ public class Square extends JComponent {
         return this.yCoordinate;
     }
 
+    /**
+     * @return index of this square in the board's {@link Core.Position}
+     */
+    public int getIndex() {
+        return this.yCoordinate * 8 + this.xCoordinate;
+    }
+
     public void setDisplay(boolean v) {
         this.displayedPiece = v;
     }
@@ -54,11 +63,24 @@ public class Square extends JComponent {
     public void put(Piece p) {
         this.occupyingPiece = p;
         p.setPosition(this);
+        board.getPosition().put(getIndex(), p.getCode());
+    }
+
+    /*
+     * Shows a piece on this square without touching the board's position,
+     * for bringing the view in line after a move was made on the position.
+     */
+    void setPiece(Piece p) {
+        this.occupyingPiece = p;
+        if (p != null) {
+            p.setPosition(this);
+        }
     }
 
     public Piece removePiece() {
         Piece occupyingPiece = this.occupyingPiece;
         this.occupyingPiece = null;
+        board.getPosition().remove(getIndex());
         return occupyingPiece;
     }
 
@@ -73,19 +95,30 @@ public class Square extends JComponent {
         }
 
         this.occupyingPiece = piece;
+        board.getPosition().put(getIndex(), piece.getCode());
     }
 
+    /**
+     * Paints nothing: the {@link Board} paints its squares and pieces itself,
+     * over a background it renders once.
+     */
+    @Override
     public void paintComponent(Graphics graphics) {
-        super.paintComponent(graphics);
-
-        if (this.COLOR == 1) {
-            graphics.setColor(new Color(221, 192, 127));
-        } else {
-            graphics.setColor(new Color(101, 67, 33));
-        }
+    }
 
+    /*
+     * Fills this square on the board's background, in board coordinates.
+     */
+    void paintBackground(Graphics graphics) {
+        graphics.setColor(this.COLOR == 1 ? LIGHT : DARK);
         graphics.fillRect(this.getX(), this.getY(), this.getWidth(), this.getHeight());
+    }
 
+    /*
+     * Draws the piece on this square, unless it is being dragged, in board
+     * coordinates.
+     */
+    void paintPiece(Graphics graphics) {
         if (occupyingPiece != null && displayedPiece) {
             occupyingPiece.draw(graphics);
         }
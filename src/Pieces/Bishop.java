@@ -1,5 +1,7 @@
 package Pieces;
 
+import Core.MoveGenerator;
+import Core.Position;
 import Management.Board;
 import Management.Square;
 
@@ -12,11 +14,12 @@ public class Bishop extends Piece {
     }
 
     @Override
-    public List<Square> getLegalMoves(Board b) {
-        Square[][] board = b.getBoard();
-        int x = this.getPosition().getXCoordinate();
-        int y = this.getPosition().getYCoordinate();
+    public int getType() {
+        return Position.BISHOP;
+    }
 
-        return getDiagonalOccupations(board, x, y);
+    @Override
+    public List<Square> getLegalMoves(Board b) {
+        return toSquares(b, MoveGenerator.bishopTargets(b.getPosition(), getPosition().getIndex(), getCOLOR()));
     }
 }
@@ -1,9 +1,10 @@
 package Pieces;
 
+import Core.MoveGenerator;
+import Core.Position;
 import Management.Board;
 import Management.Square;
 
-import java.util.LinkedList;
 import java.util.List;
 
 public class King extends Piece {
@@ -13,37 +14,12 @@ public class King extends Piece {
     }
 
     @Override
-    public List<Square> getLegalMoves(Board b) {
-        LinkedList<Square> legalMoves = new LinkedList<>();
-
-        Square[][] board = b.getBoard();
-
-        int x = this.getPosition().getXCoordinate();
-        int y = this.getPosition().getYCoordinate();
-
-
-        for (int i = 1; i > -2; i--) {
-            for (int k = 1; k > -2; k--) {
-
-                if (i == 0 && k == 0) {
-                    continue;
-                }
-
-                if (!board[y + k][x + i].isOccupied() || board[y + k][x + i].getOccupyingPiece().getCOLOR() !=
-                        this.getCOLOR()) {
-
-                    try {
-                        legalMoves.add(board[y + k][x + i]);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-
-            }
-        }
-
-
-        return legalMoves;
+    public int getType() {
+        return Position.KING;
     }
 
+    @Override
+    public List<Square> getLegalMoves(Board b) {
+        return toSquares(b, MoveGenerator.kingTargets(b.getPosition(), getPosition().getIndex(), getCOLOR()));
+    }
 }
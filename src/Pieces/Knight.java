@@ -1,9 +1,10 @@
 package Pieces;
 
+import Core.MoveGenerator;
+import Core.Position;
 import Management.Board;
 import Management.Square;
 
-import java.util.LinkedList;
 import java.util.List;
 
 public class Knight extends Piece {
@@ -13,31 +14,12 @@ public class Knight extends Piece {
     }
 
     @Override
-    public List<Square> getLegalMoves(Board b) {
-        LinkedList<Square> legalMoves = new LinkedList<>();
-        Square[][] board = b.getBoard();
-
-        int x = this.getPosition().getXCoordinate();
-        int y = this.getPosition().getYCoordinate();
-
-        for (int i = 2; i > -3; i--) {
-            for (int k = 2; k > -3; k--) {
-                if (Math.abs(i) == 2 ^ Math.abs(k) == 2) {
-                    if (k == 0 && i == 0) {
-                        continue;
-                    }
-
-                    try {
-                        legalMoves.add(board[y + k][x + i]);
-                    } catch (ArrayIndexOutOfBoundsException e) {
-                        e.printStackTrace();
-
-                    }
-                }
-            }
-        }
-
-        return legalMoves;
+    public int getType() {
+        return Position.KNIGHT;
     }
 
+    @Override
+    public List<Square> getLegalMoves(Board b) {
+        return toSquares(b, MoveGenerator.knightTargets(b.getPosition(), getPosition().getIndex(), getCOLOR()));
+    }
 }